@@ -0,0 +1,26 @@
+package application;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the benchmarks with the allocation profiler of JMH, so every result comes
+ * with the bytes allocated per operation (gc.alloc.rate.norm) next to the time
+ * 
+ * The arguments are the usual JMH command line, for example:
+ * 
+ * java -jar benchmarks/target/benchmarks.jar ChessMatchBenchmark -f 1
+*/
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
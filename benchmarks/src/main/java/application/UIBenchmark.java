@@ -0,0 +1,68 @@
+package application;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.BenchmarkMatches;
+import chess.ChessMatch;
+import chess.ChessPiece;
+
+/*
+ * Rendering of the board by the UI, the System.out is replaced by a stream that
+ * discards everything, so the numbers don't depend on the terminal
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UIBenchmark {
+
+	private PrintStream originalOut;
+	private ChessMatch chessMatch;
+	private ChessPiece[][] pieces;
+	private boolean[][] possibleMoves;
+
+	@Setup
+	public void setup() {
+		originalOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		chessMatch = BenchmarkMatches.play(BenchmarkMatches.MIDDLE_GAME);
+		pieces = chessMatch.getPieces();
+		possibleMoves = chessMatch.possibleMoves(BenchmarkMatches.position("f3"));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(originalOut);
+	}
+
+	@Benchmark
+	public void printBoard() {
+		UI.printBoard(pieces);
+	}
+
+	@Benchmark
+	public void printBoardPossibleMoves() {
+		UI.printBoard(pieces, possibleMoves);
+	}
+
+	@Benchmark
+	public void printBoardFromMatch() {
+		UI.printBoard(chessMatch.getPieces());
+	}
+}
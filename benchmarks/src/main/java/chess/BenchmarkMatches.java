@@ -0,0 +1,43 @@
+package chess;
+
+/*
+ * Matches used by the benchmarks, each one is reached by playing its moves from the
+ * initial setup with the performChessMove(), as a player would
+*/
+public final class BenchmarkMatches {
+
+	/*
+	 * Italian Game, both sides developed and every piece type has moves to generate
+	*/
+	public static final String[] MIDDLE_GAME = { "e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "c4", "f8", "c5",
+			"c2", "c3", "g8", "f6", "d2", "d3", "d7", "d6" };
+
+	/*
+	 * Scholar's Mate, the last move gives check mate
+	*/
+	public static final String[] SCHOLARS_MATE = { "e2", "e4", "e7", "e5", "f1", "c4", "b8", "c6", "d1", "h5", "g8", "f6",
+			"h5", "f7" };
+
+	/*
+	 * The Queen gives check on e7 but the black King can escape, so the testCheckMate()
+	 * has to generate the moves
+	*/
+	public static final String[] CHECK = { "e2", "e4", "d7", "d5", "e4", "d5", "e7", "e6", "d1", "e2", "a7", "a6", "e2",
+			"e6" };
+
+	private BenchmarkMatches() {
+
+	}
+
+	public static ChessMatch play(String[] moves) {
+		ChessMatch chessMatch = new ChessMatch();
+		for (int i = 0; i < moves.length; i += 2) {
+			chessMatch.performChessMove(position(moves[i]), position(moves[i + 1]));
+		}
+		return chessMatch;
+	}
+
+	public static ChessPosition position(String s) {
+		return new ChessPosition(s.charAt(0), s.charAt(1) - '0');
+	}
+}
@@ -0,0 +1,99 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The ChessMatch operations that run on every move of a game
+ * 
+ * A move can't be taken back, so the performChessMove() is measured by playing a
+ * whole game on a new match, newMatch() gives the cost of the match creation to be
+ * subtracted from it
+ * 
+ * The copy of a match is what a worker or an analysis pays to branch from a
+ * position, it must stay under a microsecond
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChessMatchBenchmark {
+
+	private ChessMatch initial;
+	private ChessMatch middleGame;
+	private ChessMatch check;
+	private ChessMatch checkMate;
+
+	@Setup
+	public void setup() {
+		initial = new ChessMatch();
+		middleGame = BenchmarkMatches.play(BenchmarkMatches.MIDDLE_GAME);
+		check = BenchmarkMatches.play(BenchmarkMatches.CHECK);
+		checkMate = BenchmarkMatches.play(BenchmarkMatches.SCHOLARS_MATE);
+		if (!check.getCheck() || check.getCheckMate() || !checkMate.getCheckMate()) {
+			throw new IllegalStateException("The benchmark matches don't have the expected state");
+		}
+	}
+
+	@Benchmark
+	public ChessMatch newMatch() {
+		return new ChessMatch();
+	}
+
+	@Benchmark
+	public ChessMatch copyInitial() {
+		return new ChessMatch(initial);
+	}
+
+	@Benchmark
+	public ChessMatch copyMiddleGame() {
+		return new ChessMatch(middleGame);
+	}
+
+	@Benchmark
+	public ChessMatch performChessMoveScholarsMate() {
+		return BenchmarkMatches.play(BenchmarkMatches.SCHOLARS_MATE);
+	}
+
+	@Benchmark
+	public ChessMatch performChessMoveMiddleGame() {
+		return BenchmarkMatches.play(BenchmarkMatches.MIDDLE_GAME);
+	}
+
+	@Benchmark
+	public boolean testCheck() {
+		return check.testCheck(check.getCurrentPlayer());
+	}
+
+	@Benchmark
+	public boolean testCheckMateInCheck() {
+		return check.testCheckMate(check.getCurrentPlayer());
+	}
+
+	@Benchmark
+	public boolean testCheckMateMated() {
+		return checkMate.testCheckMate(checkMate.getCurrentPlayer());
+	}
+
+	@Benchmark
+	public ChessPiece getKing() {
+		return middleGame.getKing(Color.BLACK);
+	}
+
+	@Benchmark
+	public ChessPiece[][] getPieces() {
+		return middleGame.getPieces();
+	}
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.bitboard.MoveGenerator;
+
+/*
+ * Move generation of a single piece of each type in the middle game, with the three
+ * forms of the possibleMoves(): the boolean matrix of the boardGame layer, the
+ * bitboard mask and the move buffer
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PossibleMovesBenchmark {
+
+	// In the order of the piece type constants of the Bitboard
+	private static final List<String> PIECE_TYPES = Arrays.asList("PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING");
+
+	@Param({ "PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING" })
+	public String pieceType;
+
+	private ChessPiece piece;
+	private int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+	@Setup
+	public void setup() {
+		int type = PIECE_TYPES.indexOf(pieceType);
+		ChessMatch chessMatch = BenchmarkMatches.play(BenchmarkMatches.MIDDLE_GAME);
+		for (ChessPiece[] row : chessMatch.getPieces()) {
+			for (ChessPiece p : row) {
+				if (p != null && p.getColor() == Color.WHITE && p.getPieceType() == type && p.isThereAnyPossibleMove()) {
+					piece = p;
+				}
+			}
+		}
+		if (piece == null) {
+			throw new IllegalStateException("There is no white " + pieceType + " with moves on the board");
+		}
+	}
+
+	@Benchmark
+	public boolean[][] possibleMoves() {
+		return piece.possibleMoves();
+	}
+
+	@Benchmark
+	public long possibleMovesMask() {
+		return piece.possibleMovesMask();
+	}
+
+	@Benchmark
+	public int possibleMovesBuffer() {
+		return piece.possibleMoves(moves, 0);
+	}
+}
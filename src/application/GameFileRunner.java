@@ -0,0 +1,169 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.archive.GameFile;
+import chess.archive.GameFileReader;
+import chess.archive.GameFileWriter;
+import chess.archive.PositionIndex;
+import chess.archive.PositionIndexReader;
+import chess.archive.PositionIndexWriter;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+/*
+ * Game file mode of the application, started with "games" as the first argument:
+ *
+ * games pack <pgn file> <game file>	- replays the games of the PGN and writes
+ * 										the ones without errors to the game file
+ * games replay <game file>				- replays every game of the game file
+ * games show <game file> <game>		- prints the moves of one game
+ * games index <game file>... <index>	- builds the position index of the games,
+ * 										numbered across the files in the given
+ * 										order, and compacts it
+ * games compact <index> <target>		- merges the runs of the index into one
+ * games find <index> <fen>				- prints the games that reached the position
+*/
+public class GameFileRunner {
+
+	public static void main(String[] args) {
+		boolean twoArguments = args.length > 0 && !args[0].equals("replay");
+		if (args.length < (twoArguments ? 3 : 2)) {
+			System.out.println("Usage: games pack <pgn file> <game file> | games replay <game file>"
+					+ " | games show <game file> <game> | games index <game file>... <index>"
+					+ " | games compact <index> <target> | games find <index> <fen>");
+			return;
+		}
+
+		try {
+			switch (args[0]) {
+			case "pack":
+				pack(Paths.get(args[1]), Paths.get(args[2]));
+				break;
+			case "replay":
+				replay(Paths.get(args[1]));
+				break;
+			case "show":
+				show(Paths.get(args[1]), Integer.parseInt(args[2]));
+				break;
+			case "index":
+				Path[] games = new Path[args.length - 2];
+				for (int i = 0; i < games.length; i++) {
+					games[i] = Paths.get(args[i + 1]);
+				}
+				index(games, Paths.get(args[args.length - 1]));
+				break;
+			case "compact":
+				PositionIndexWriter.compact(Paths.get(args[1]), Paths.get(args[2]));
+				break;
+			case "find":
+				find(Paths.get(args[1]), String.join(" ", Arrays.copyOfRange(args, 2, args.length)));
+				break;
+			default:
+				System.out.println("Unknown game file command: " + args[0]);
+			}
+		} catch (IOException e) {
+			System.out.println("Error: " + e.getMessage());
+		}
+	}
+
+	private static void pack(Path pgn, Path games) throws IOException {
+		long start = System.nanoTime();
+		long errors = 0;
+		try (PgnReader reader = PgnReader.open(pgn); GameFileWriter writer = new GameFileWriter(games)) {
+			PgnGame game = new PgnGame();
+			while (reader.next(game)) {
+				try {
+					game.replay();
+					writer.write(game);
+				} catch (IllegalArgumentException | ChessException e) {
+					errors++;
+					System.out.println(e.getMessage());
+				} catch (RuntimeException e) {
+					// Any other failure of a game is also only that game's error, as in the BatchReplay
+					errors++;
+					System.out.println("Error replaying game " + game.getNumber() + ": " + e);
+				}
+			}
+			System.out.printf("%d games written, %d errors in %.3f s%n", writer.getGameCount(), errors,
+					(System.nanoTime() - start) / 1e9);
+		}
+		System.out.printf("%,d bytes of PGN, %,d bytes of game file%n", Files.size(pgn), Files.size(games));
+	}
+
+	private static void replay(Path games) throws IOException {
+		long start = System.nanoTime();
+		long plies = 0;
+		try (GameFileReader reader = new GameFileReader(games)) {
+			for (int i = 0; i < reader.getGameCount(); i++) {
+				reader.replay(i);
+				plies += reader.getPlyCount(i);
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d games, %d moves replayed in %.3f s (%,.0f games/s, %,.0f moves/s)%n",
+					reader.getGameCount(), plies, seconds, reader.getGameCount() / seconds, plies / seconds);
+		}
+	}
+
+	private static void show(Path games, int game) throws IOException {
+		try (GameFileReader reader = new GameFileReader(games)) {
+			ChessMatch chessMatch = reader.replay(game);
+			int[] moves = new int[reader.getPlyCount(game)];
+			reader.getMoves(game, moves);
+			System.out.println("Game " + game + ": " + reader.getPlyCount(game) + " plies, "
+					+ GameFile.resultToString(reader.getResult(game)));
+			StringBuilder sb = new StringBuilder();
+			for (int move : moves) {
+				sb.append(Move.toString(move)).append(' ');
+			}
+			System.out.println(sb.toString().trim());
+			System.out.println(chessMatch.toFen());
+		}
+	}
+
+	/*
+	 * The index is built again from the start, the entries only know the number of
+	 * the game, so the ones left by an earlier run (or by other game files) would
+	 * be found as other games
+	*/
+	private static void index(Path[] games, Path index) throws IOException {
+		long start = System.nanoTime();
+		Files.deleteIfExists(index);
+		try (PositionIndexWriter writer = new PositionIndexWriter(index)) {
+			int firstGame = 0;
+			for (Path path : games) {
+				try (GameFileReader reader = new GameFileReader(path)) {
+					writer.addGames(reader, firstGame);
+					System.out.printf("%s: games %d to %d%n", path, firstGame, firstGame + reader.getGameCount() - 1);
+					firstGame += reader.getGameCount();
+				}
+			}
+		}
+		PositionIndexWriter.compact(index);
+		try (PositionIndexReader reader = new PositionIndexReader(index)) {
+			System.out.printf("%d positions in %d runs, indexed in %.3f s%n", reader.getEntryCount(), reader.getRunCount(),
+					(System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	private static void find(Path index, String fen) throws IOException {
+		try (PositionIndexReader reader = new PositionIndexReader(index)) {
+			long key = Fen.parse(fen).getKey();
+			long start = System.nanoTime();
+			long[] entries = reader.lookup(key);
+			long nanos = System.nanoTime() - start;
+			System.out.println(entries.length + " games reached the position, found in " + nanos / 1000 + " us");
+			for (long entry : entries) {
+				System.out.println("Game " + PositionIndex.game(entry) + ", ply " + PositionIndex.ply(entry));
+			}
+		}
+	}
+}
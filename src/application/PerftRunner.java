@@ -0,0 +1,172 @@
+package application;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.ChessMatchPerft;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+import chess.bitboard.ParallelPerft;
+import chess.bitboard.Perft;
+
+/*
+ * Perft mode of the application, started with "perft" as the first argument:
+ *
+ * perft check					runs the standard reference positions and compares the counts
+ * perft <depth>				counts the nodes of the initial setup of the ChessMatch
+ * perft <depth> <fen>			counts the nodes of the given position
+ * perft divide <depth> [fen]	prints the count of each root move
+ * perft parallel <depth> [fen]	counts the nodes with the threads of the fork/join pool
+ * perft match <depth> [fen]	counts the nodes by playing the moves on the ChessMatch
+*/
+public class PerftRunner {
+
+	/*
+	 * Reference positions with the known node counts for depth 1, 2, 3...
+	*/
+	private static final Object[][] REFERENCE = {
+			{ "Initial position", Fen.INITIAL_POSITION,
+					new long[] { 20L, 400L, 8902L, 197281L, 4865609L } },
+			{ "Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+					new long[] { 48L, 2039L, 97862L, 4085603L } },
+			{ "Position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+					new long[] { 14L, 191L, 2812L, 43238L, 674624L } },
+			{ "Position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+					new long[] { 6L, 264L, 9467L, 422333L } },
+			{ "Position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+					new long[] { 44L, 1486L, 62379L, 2103487L } },
+			{ "Position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+					new long[] { 46L, 2079L, 89890L, 3894594L } } };
+
+	/*
+	 * The ChessMatchPerft plays every move on the ChessMatch, which is much slower,
+	 * so the check only takes it up to this depth
+	*/
+	private static final int MATCH_DEPTH = 3;
+
+	public static void main(String[] args) {
+		if (args.length == 0 || args[0].equals("check")) {
+			System.exit(check() ? 0 : 1);
+		}
+		if (args[0].equals("divide")) {
+			divide(Integer.parseInt(args[1]), position(args, 2));
+		} else if (args[0].equals("parallel")) {
+			runParallel(Integer.parseInt(args[1]), position(args, 2));
+		} else if (args[0].equals("match")) {
+			runMatch(Integer.parseInt(args[1]), (args.length > 2)
+					? ChessMatch.fromFen(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
+					: new ChessMatch());
+		} else {
+			run(Integer.parseInt(args[0]), position(args, 1));
+		}
+	}
+
+	/*
+	 * Without a FEN the position is the initial setup of a new ChessMatch
+	*/
+	private static BitboardPosition position(String[] args, int fenIndex) {
+		if (args.length > fenIndex) {
+			return Fen.parse(String.join(" ", Arrays.copyOfRange(args, fenIndex, args.length)));
+		}
+		return new ChessMatch().getBitboard();
+	}
+
+	public static long run(int depth, BitboardPosition position) {
+		Perft perft = new Perft(position, depth);
+		long start = System.nanoTime();
+		long nodes = perft.perft(depth);
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("depth %d: %d nodes in %.3f s (%,.0f nodes/s)%n", depth, nodes, elapsed / 1e9,
+				nodes * 1e9 / Math.max(elapsed, 1L));
+		return nodes;
+	}
+
+	public static long runParallel(int depth, BitboardPosition position) {
+		ParallelPerft perft = new ParallelPerft();
+		long start = System.nanoTime();
+		long nodes = perft.perft(position, depth);
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("depth %d: %d nodes in %.3f s (%,.0f nodes/s, %d threads)%n", depth, nodes, elapsed / 1e9,
+				nodes * 1e9 / Math.max(elapsed, 1L), perft.getPool().getParallelism());
+		return nodes;
+	}
+
+	public static long runMatch(int depth, ChessMatch chessMatch) {
+		long start = System.nanoTime();
+		long nodes = ChessMatchPerft.perft(chessMatch, depth);
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("depth %d: %d nodes in %.3f s (%,.0f nodes/s, ChessMatch)%n", depth, nodes, elapsed / 1e9,
+				nodes * 1e9 / Math.max(elapsed, 1L));
+		return nodes;
+	}
+
+	public static void divide(int depth, BitboardPosition position) {
+		long start = System.nanoTime();
+		long total = 0;
+		for (Map.Entry<String, Long> entry : new Perft(position, depth).divide(depth).entrySet()) {
+			System.out.println(entry.getKey() + ": " + entry.getValue());
+			total += entry.getValue();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%nNodes searched: %d in %.3f s%n", total, elapsed / 1e9);
+	}
+
+	/*
+	 * Runs every reference position up to its last known depth, returns false and
+	 * prints the position and depth if any count is different from the expected one
+	 * 
+	 * The last depth is counted again by the ParallelPerft, which must give the
+	 * same number as the sequential one, and the first depths by the ChessMatchPerft,
+	 * which checks the rules of the pieces and the moves of the ChessMatch
+	*/
+	public static boolean check() {
+		boolean ok = true;
+		long totalNodes = 0;
+		long start = System.nanoTime();
+		ParallelPerft parallel = new ParallelPerft();
+		for (Object[] reference : REFERENCE) {
+			BitboardPosition position = Fen.parse((String) reference[1]);
+			long[] expected = (long[]) reference[2];
+			Perft perft = new Perft(position, expected.length);
+			for (int depth = 1; depth <= expected.length; depth++) {
+				long nodes = perft.perft(depth);
+				totalNodes += nodes;
+				if (nodes != expected[depth - 1]) {
+					System.out.printf("FAILED %s depth %d: %d nodes, expected %d%n", reference[0], depth, nodes,
+							expected[depth - 1]);
+					ok = false;
+				}
+			}
+			long parallelNodes = parallel.perft(position, expected.length);
+			totalNodes += parallelNodes;
+			if (parallelNodes != expected[expected.length - 1]) {
+				System.out.printf("FAILED %s parallel depth %d: %d nodes, expected %d%n", reference[0],
+						expected.length, parallelNodes, expected[expected.length - 1]);
+				ok = false;
+			}
+			ChessMatchPerft matchPerft = new ChessMatchPerft(ChessMatch.fromFen((String) reference[1]), MATCH_DEPTH);
+			for (int depth = 1; depth <= Math.min(MATCH_DEPTH, expected.length); depth++) {
+				try {
+					long nodes = matchPerft.perft(depth);
+					totalNodes += nodes;
+					if (nodes != expected[depth - 1]) {
+						System.out.printf("FAILED %s ChessMatch depth %d: %d nodes, expected %d%n", reference[0], depth,
+								nodes, expected[depth - 1]);
+						ok = false;
+					}
+				} catch (IllegalStateException e) {
+					// The moves of a piece are different from the ones of the MoveGenerator
+					System.out.printf("FAILED %s ChessMatch depth %d: %s%n", reference[0], depth, e.getMessage());
+					ok = false;
+					break;
+				}
+			}
+			System.out.printf("%-16s %s%n", reference[0], ok ? "ok" : "FAILED");
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%d nodes in %.3f s (%,.0f nodes/s)%n", totalNodes, elapsed / 1e9,
+				totalNodes * 1e9 / Math.max(elapsed, 1L));
+		return ok;
+	}
+}
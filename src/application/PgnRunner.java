@@ -0,0 +1,76 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import chess.pgn.BatchReplay;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.ReplayResult;
+
+/*
+ * PGN mode of the application, started with "pgn" as the first argument:
+ *
+ * pgn <file> [threads]
+ *
+ * Reads every game of the file and replays it on a ChessMatch, then prints how
+ * many games and moves were replayed per second, and the games that couldn't be
+ * replayed. With the number of threads, the games are replayed by a BatchReplay
+*/
+public class PgnRunner {
+
+	private static final int CHUNK_SIZE = 256;
+
+	private static long games;
+	private static long plies;
+	private static long errors;
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: pgn <file> [threads]");
+			return;
+		}
+
+		long start = System.nanoTime();
+		try (PgnReader reader = PgnReader.open(Paths.get(args[0]))) {
+			if (args.length > 1) {
+				try (BatchReplay batch = new BatchReplay(Integer.parseInt(args[1]), CHUNK_SIZE)) {
+					batch.replay(reader, result -> {
+						if (result.hasError()) {
+							error(result.getError());
+						} else {
+							replayed(result.getPlies());
+						}
+					});
+				}
+			} else {
+				PgnGame game = new PgnGame();
+				while (reader.next(game)) {
+					ReplayResult result = BatchReplay.replay(game);
+					if (result.hasError()) {
+						error(result.getError());
+					} else {
+						replayed(result.getPlies());
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("Error reading " + args[0] + ": " + e.getMessage());
+			return;
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d games, %d moves replayed, %d errors in %.3f s (%,.0f games/s, %,.0f moves/s)%n", games, plies,
+				errors, seconds, games / seconds, plies / seconds);
+	}
+
+	private static void replayed(int gamePlies) {
+		games++;
+		plies += gamePlies;
+	}
+
+	private static void error(String message) {
+		errors++;
+		System.out.println(message);
+	}
+}
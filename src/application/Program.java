@@ -1,6 +1,7 @@
 package application;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
@@ -13,6 +14,23 @@ import chess.ChessPosition;
 public class Program {
 
 	public static void main(String[] args) {
+		
+		if(args.length > 0 && args[0].equals("perft")) {
+			PerftRunner.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if(args.length > 0 && args[0].equals("search")) {
+			SearchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if(args.length > 0 && args[0].equals("pgn")) {
+			PgnRunner.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if(args.length > 0 && args[0].equals("games")) {
+			GameFileRunner.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 
 		Scanner sc = new Scanner(System.in);
 		ChessMatch chessMatch = new ChessMatch();
@@ -0,0 +1,37 @@
+package application;
+
+import java.util.Arrays;
+
+import chess.ChessMatch;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+import chess.engine.LazySmp;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+
+/*
+ * Search mode of the application, started with "search" as the first argument:
+ *
+ * search <threads> <milliseconds> [fen]
+ *
+ * Searches the initial setup of the ChessMatch, or the given position, with the
+ * Lazy SMP threads and prints the best move with the nodes per second of each thread
+*/
+public class SearchRunner {
+
+	private static final int TABLE_SIZE_MB = 64;
+
+	public static void main(String[] args) {
+		int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		long millis = (args.length > 1) ? Long.parseLong(args[1]) : 5000L;
+		BitboardPosition position = (args.length > 2)
+				? Fen.parse(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
+				: new ChessMatch().getBitboard();
+
+		try (LazySmp smp = new LazySmp(threads, TABLE_SIZE_MB)) {
+			SearchResult result = smp.search(position, SearchLimits.time(millis));
+			System.out.println(result);
+			System.out.println(smp.report());
+		}
+	}
+}
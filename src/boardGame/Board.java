@@ -2,9 +2,10 @@ package boardGame;
 
 public class Board {
 
-	private Integer rows;
-	private Integer columns;
-	private Piece[][] pieces;
+	private int rows;
+	private int columns;
+	private Piece[] pieces;
+	private Square[] squares;
 	
 	public Board() {
 		
@@ -21,7 +22,23 @@ public class Board {
 		
 		this.rows = rows;
 		this.columns = columns;
-		pieces = new Piece[rows][columns];
+		pieces = new Piece[rows * columns];
+		squares = new Square[rows * columns];
+		for(int i = 0; i < squares.length; i++) {
+			squares[i] = Square.valueOf(i / columns, i % columns);
+		}
+	}
+	
+	/*
+	 * The copy constructor gives an empty board with the dimension of the other one,
+	 * the immutable squares are shared by both boards, the pieces
+	 * are placed by the subclass that knows how to copy them
+	*/
+	protected Board(Board board) {
+		rows = board.rows;
+		columns = board.columns;
+		pieces = new Piece[rows * columns];
+		squares = board.squares;
 	}
 	
 	/*
@@ -36,6 +53,26 @@ public class Board {
 		return columns;
 	}
 	
+	/*
+	 * The pieces are kept in a single array, row by row, so a square of the board
+	 * can also be given by its index (row * columns + column), and the index(row,
+	 * column) and square(index) convert between the two
+	 * 
+	 * The square(index) always returns the same immutable Square for an index, it is
+	 * the square kept by the piece placed there
+	*/
+	public int index(int row, int column) {
+		return row * columns + column;
+	}
+	
+	public Square square(int index) {
+		if(!indexExists(index)) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		return squares[index];
+	}
+	
 	/*
 	 * Using the auxiliary method positionExists(row, column), we can prevent the
 	 * null position error within the method piece(row, column)
@@ -47,7 +84,15 @@ public class Board {
 			throw new BoardException("Position not on the board");
 		}
 		
-		return pieces[row][column];
+		return pieces[index(row, column)];
+	}
+	
+	public Piece piece(int index) {
+		if(!indexExists(index)) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		return pieces[index];
 	}
 	
 	public Piece piece(Position position) {
@@ -55,7 +100,11 @@ public class Board {
 			throw new BoardException("Position not on the board");
 		}
 		
-		return pieces[position.getRow()][position.getColumn()];
+		return pieces[index(position.getRow(), position.getColumn())];
+	}
+	
+	public Piece piece(Square square) {
+		return piece(square.getRow(), square.getColumn());
 	}
 	
 	/*
@@ -63,18 +112,41 @@ public class Board {
 	 * requested position, and if the condition is true, a throw declaration informs
 	 * it to the user
 	 * 
-	 * To not overload the placePiece(piece, position) method, instead of testing if
-	 * the position really exists in this method, we will add this test within the
-	 * thereIsAPiece(position) method, which makes more sense, we can only consider
-	 * placing a piece if the thereIsAPiece(position) recognizes its existence before
+	 * The placePiece(piece, position) only converts the position to its index, the
+	 * placePiece(piece, index) does the work, so a subclass that needs to know about
+	 * every change of the board (as the ChessBoard) overrides only the index methods
+	 * 
+	 * The piece keeps the immutable square of the board and its own position with
+	 * the same values, not the one passed as argument, which can be changed later
+	 * by the caller
 	*/
 	public void placePiece(Piece piece, Position position) {
-		if(thereIsAPiece(position)) {
-			throw new BoardException("There is already a piece on position " + position);
+		if(!positionExists(position)) {
+			throw new BoardException("Position not on the board");
 		}
 		
-		pieces[position.getRow()][position.getColumn()] = piece;
-		piece.position = position;
+		placePiece(piece, index(position.getRow(), position.getColumn()));
+	}
+	
+	public void placePiece(Piece piece, Square square) {
+		if(!positionExists(square.getRow(), square.getColumn())) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		placePiece(piece, index(square.getRow(), square.getColumn()));
+	}
+	
+	public void placePiece(Piece piece, int index) {
+		if(!indexExists(index)) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		if(pieces[index] != null) {
+			throw new BoardException("There is already a piece on position " + squares[index]);
+		}
+		
+		pieces[index] = piece;
+		piece.place(squares[index]);
 	}
 	
 	/*
@@ -88,13 +160,29 @@ public class Board {
 			throw new BoardException("Position not on the board");
 		}
 		
-		if(piece(position) == null) {
+		return removePiece(index(position.getRow(), position.getColumn()));
+	}
+	
+	public Piece removePiece(Square square) {
+		if(!positionExists(square.getRow(), square.getColumn())) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		return removePiece(index(square.getRow(), square.getColumn()));
+	}
+	
+	public Piece removePiece(int index) {
+		if(!indexExists(index)) {
+			throw new BoardException("Position not on the board");
+		}
+		
+		if(pieces[index] == null) {
 			return null;
 		}
 		
-		Piece aux = piece(position);
-		aux.position = null;
-		pieces[position.getRow()][position.getColumn()] = null;
+		Piece aux = pieces[index];
+		aux.place(null);
+		pieces[index] = null;
 		return aux;
 	}
 	
@@ -115,6 +203,10 @@ public class Board {
 		return positionExists(position.getRow(), position.getColumn());
 	}
 	
+	private boolean indexExists(int index) {
+		return index >= 0 && index < pieces.length;
+	}
+	
 	/*
 	 * The thereIsAPiece(Position position) method get the information returned by the
 	 * piece(Position position) and if it is not null, it returns the provided position
@@ -127,4 +219,8 @@ public class Board {
 		return piece(position) != null;
 	}
 	
+	public boolean thereIsAPiece(Square square) {
+		return piece(square) != null;
+	}
+	
 }
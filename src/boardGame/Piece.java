@@ -3,8 +3,11 @@ package boardGame;
 public abstract class Piece {
 	// This position refers to the matrix position
 	protected Position position;
+	// The same matrix position as the immutable square of the board
+	protected Square square;
 
 	private Board board;
+	private Position ownPosition;
 
 	public Piece() {
 
@@ -24,36 +27,76 @@ public abstract class Piece {
 		return board;
 	}
 
+	/*
+	 * The board places the piece on a square (or removes it with null), the position
+	 * of the piece is its own instance, updated with the values of the square, so
+	 * moving a piece doesn't create a new position each time
+	 */
+	void place(Square square) {
+		this.square = square;
+		if (square == null) {
+			position = null;
+			return;
+		}
+		if (ownPosition == null) {
+			ownPosition = new Position();
+		}
+		ownPosition.setValues(square.getRow(), square.getColumn());
+		position = ownPosition;
+	}
+
 	public abstract boolean[][] possibleMoves();
 
+	/*
+	 * The possibleMovesMask() gives the same information of the possibleMoves()
+	 * matrix packed in a single long, where the bit (row * columns + column) is on
+	 * when the piece can move to that position, which works for boards of up to 64
+	 * positions
+	 * 
+	 * As a long is a primitive value, asking for the mask doesn't allocate anything,
+	 * so the pieces that can compute it directly must override this method, the
+	 * default implementation below only converts the matrix
+	 */
+	public long possibleMovesMask() {
+		boolean[][] mat = possibleMoves();
+		long mask = 0L;
+
+		for (int i = 0; i < mat.length; i++) {
+			for (int j = 0; j < mat[i].length; j++) {
+				if (mat[i][j]) {
+					mask |= 1L << (i * mat[i].length + j);
+				}
+			}
+		}
+		return mask;
+	}
+
 	/*
 	 * Here we are applying a hook method, defining a concrete method possibleMove()
 	 * which "hooks" the abstract action defined to happen in the possibleMoves(),
-	 * notice that our abstract method requires a matrix of rows and columns, and
-	 * our concrete method provides it with the position.getRow() and
-	 * position.getColumn()
+	 * the test is made over the possibleMovesMask() so that no matrix is created
+	 * just to read one of its positions
 	 */
 	public boolean possibleMove(Position position) {
-		return possibleMoves()[position.getRow()][position.getColumn()];
+		return possibleMove(position.getRow(), position.getColumn());
+	}
+
+	public boolean possibleMove(Square square) {
+		return possibleMove(square.getRow(), square.getColumn());
+	}
+
+	private boolean possibleMove(int row, int column) {
+		return (possibleMovesMask() & (1L << (row * board.getColumns() + column))) != 0;
 	}
 
 	/*
 	 * The isThereAnyPossibleMove() will be responsible to identify if the provided
-	 * matrix of the board, required by the possibleMoves() method, is a valid route
-	 * for our piece to use, with this implementation we can determinate if our piece
-	 * is constrained between its allies or have clear passage to capture an enemy
+	 * route of the board, given by the possibleMovesMask(), is a valid route for our
+	 * piece to use, with this implementation we can determinate if our piece is
+	 * constrained between its allies or have clear passage to capture an enemy
 	 * along the way or to stop within its own movement definition
 	*/
 	public boolean isThereAnyPossibleMove() {
-		boolean[][] mat = possibleMoves();
-
-		for (int i = 0; i < mat.length; i++) {
-			for (int j = 0; j < mat.length; j++) {
-				if(mat[i][j]) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return possibleMovesMask() != 0;
 	}
 }
@@ -0,0 +1,85 @@
+package boardGame;
+
+/*
+ * The Square is the immutable counterpart of the Position, a square of the board
+ * can't be changed after it is created, so the same instance can be shared by
+ * the board, the pieces and the match, and a new square is created (or taken
+ * from the cache of the valueOf()) whenever other values are needed
+ * 
+ * The Position keeps its own API, with the boxed values and the setters, for
+ * the callers that already use it
+*/
+public final class Square {
+
+	private final int row;
+	private final int column;
+
+	/*
+	 * The squares returned by the valueOf(row, column), one for each square of an
+	 * 8 x 8 board, they are created only once
+	*/
+	private static final int CACHE_SIZE = 8;
+	private static final Square[] CACHE = new Square[CACHE_SIZE * CACHE_SIZE];
+
+	static {
+		for(int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new Square(i / CACHE_SIZE, i % CACHE_SIZE);
+		}
+	}
+
+	private Square(int row, int column) {
+		this.row = row;
+		this.column = column;
+	}
+
+	/*
+	 * The valueOf(row, column) doesn't allocate anything on an 8 x 8 board, as
+	 * Integer.valueOf() does with the small numbers, outside of the cached squares a
+	 * new square is created
+	*/
+	public static Square valueOf(int row, int column) {
+		if(row >= 0 && row < CACHE_SIZE && column >= 0 && column < CACHE_SIZE) {
+			return CACHE[row * CACHE_SIZE + column];
+		}
+		return new Square(row, column);
+	}
+
+	public static Square valueOf(Position position) {
+		return valueOf(position.getRow(), position.getColumn());
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	public Position toPosition() {
+		return new Position(row, column);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(!(obj instanceof Square)) {
+			return false;
+		}
+		Square other = (Square)obj;
+		return row == other.row && column == other.column;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * row + column;
+	}
+
+	@Override
+	public String toString() {
+		return	row + ", " + column;
+	}
+
+}
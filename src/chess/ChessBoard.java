@@ -0,0 +1,60 @@
+package chess;
+
+import boardGame.Board;
+import boardGame.Piece;
+import chess.bitboard.BitboardPosition;
+
+/*
+ * The ChessBoard is the 8 x 8 Board used by the ChessMatch, it keeps the matrix of
+ * pieces of the board layer, which is what the UI and the pieces already know, but
+ * every time a piece is placed or removed the same change is mirrored in a
+ * BitboardPosition
+ * 
+ * That way the Board and the Piece objects remain as a facade of the match, while
+ * the bitboards are the representation to be used by the move generation
+*/
+public class ChessBoard extends Board {
+
+	private BitboardPosition bitboard;
+
+	public ChessBoard() {
+		super(8, 8);
+		bitboard = new BitboardPosition();
+	}
+
+	/*
+	 * The copy of a board starts with a copy of the other bitboards, so the pieces
+	 * placed by the copyPiece() are not mirrored again
+	*/
+	public ChessBoard(ChessBoard board) {
+		super(board);
+		bitboard = new BitboardPosition(board.bitboard);
+	}
+
+	public BitboardPosition getBitboard() {
+		return bitboard;
+	}
+
+	@Override
+	public void placePiece(Piece piece, int index) {
+		super.placePiece(piece, index);
+
+		// The index of the 8 x 8 board is the same square number of the bitboards
+		ChessPiece p = (ChessPiece) piece;
+		bitboard.addPiece(p.getColor().ordinal(), p.getPieceType(), index);
+	}
+
+	void copyPiece(ChessPiece piece, int index) {
+		super.placePiece(piece, index);
+	}
+
+	@Override
+	public Piece removePiece(int index) {
+		Piece p = super.removePiece(index);
+
+		if (p != null) {
+			bitboard.removePiece(index);
+		}
+		return p;
+	}
+}
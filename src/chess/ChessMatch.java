@@ -1,12 +1,19 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import boardGame.Board;
 import boardGame.Piece;
-import boardGame.Position;
+import boardGame.Square;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.bitboard.PositionSnapshot;
 import chess.pieces.Bishop;
 import chess.pieces.King;
 import chess.pieces.Knight;
@@ -18,14 +25,50 @@ public class ChessMatch {
 
 	private Integer turn;
 	private Color currentPlayer;
-	private Board board;
+	private ChessBoard board;
 	private Boolean check;
 	private Boolean checkMate;
 	private ChessPiece enPassantVulnerable;
 	private ChessPiece promoted;
 	
-	private List<Piece> piecesOnTheBoard = new ArrayList<Piece>();
+	//There are never more than 32 pieces on the board
+	private List<Piece> piecesOnTheBoard = new ArrayList<Piece>(32);
 	private List<Piece> capturedPieces = new ArrayList<Piece>();
+	
+	//Letters of the promotion pieces, in the order of the piece types of the bitboards
+	private static final String[] PROMOTION_TYPES = { "N", "B", "R", "Q" };
+	
+	//Reusable buffer for the moves given by the MoveGenerator, see moveBuffer()
+	private int[] moves;
+	
+	//Last position of the match, published for the threads that only read it
+	private volatile PositionSnapshot snapshot;
+	
+	/*
+	 * The undo records of the moves played, one for each ply, see undoMove(). The
+	 * records after the current ply are the moves taken back, kept for redoMove()
+	 * 
+	 * A record is packed in a long, with what the move itself can't tell:
+	 * 
+	 * bits 0 to 15		- the move, encoded by the Move class with its flags
+	 * bit 16			- a piece was captured, it is the last of the captured pieces
+	 * bit 17			- the match was in CHECK before the move
+	 * bits 18 to 24	- square of the pawn vulnerable to en passant before the move
+	 * bits 25 to 28	- castling rights before the move
+	 * bits 29 to 35	- en passant square of the bitboards before the move
+	 * 
+	 * The position key before the move is kept apart, and also the pawn of each
+	 * promotion, which left the board for the new piece
+	 */
+	private static final long CAPTURED = 1L << 16;
+	private static final long IN_CHECK = 1L << 17;
+	private static final int NO_SQUARE = 0x7F;
+	
+	private long[] undoRecords = new long[0];
+	private long[] undoKeys = new long[0];
+	private ChessPiece[] promotedPawns = new ChessPiece[0];
+	private int ply;
+	private int plyCount;
 
 	/*
 	 * Only the ChessMatch must know the dimension of a chess board, for that reason
@@ -38,15 +81,123 @@ public class ChessMatch {
 	 * 
 	 * We now consider the player switching, and for that we define the turn that of
 	 * course starts by turn 1, and in the chess match, the Whites always starts
+	 * 
+	 * The board is a ChessBoard, which mirrors every placed and removed piece in a
+	 * BitboardPosition, so the match is also backed by the bitboards
 	 */
 
 	public ChessMatch() {
-		board = new Board(8, 8);
+		board = new ChessBoard();
 		turn = 1;
 		currentPlayer = Color.WHITE;
 		check = false;
 		checkMate = false;
 		initialSetup();
+		updateBitboardState(currentPlayer);
+		snapshot = PositionSnapshot.of(board.getBitboard(), turn);
+	}
+	
+	/*
+	 * A match can also be rebuilt from a snapshot, the pieces are created on the
+	 * squares of the snapshot and their move count is derived from what the
+	 * position tells about them:
+	 * 
+	 * King and Rooks	- they never moved if the castling rights allow it
+	 * Pawns			- they never moved if they are on their initial row
+	 * 
+	 * The captured pieces of the original match are not part of the position, so
+	 * the rebuilt match starts without them
+	 */
+	public ChessMatch(PositionSnapshot snapshot) {
+		board = new ChessBoard();
+		turn = snapshot.getTurn();
+		currentPlayer = (snapshot.getSideToMove() == Bitboard.WHITE) ? Color.WHITE : Color.BLACK;
+		check = false;
+		checkMate = false;
+		setupPosition(snapshot);
+		
+		//The pawn that has just moved two rows is right after the en passant square
+		if(snapshot.getEnPassantSquare() != Bitboard.EMPTY) {
+			int square = snapshot.getEnPassantSquare() + ((currentPlayer == Color.WHITE) ? 8 : -8);
+			enPassantVulnerable = (ChessPiece)board.piece(Bitboard.row(square), Bitboard.column(square));
+		}
+		updateBitboardState(currentPlayer);
+		
+		check = testCheck(currentPlayer);
+		if(testCheckMate(currentPlayer)) {
+			//As in the performChessMove(), the player who gave the CHECK MATE stays as the current one
+			checkMate = true;
+			currentPlayer = opponent(currentPlayer);
+		}
+		this.snapshot = PositionSnapshot.of(board.getBitboard(), turn);
+	}
+
+	/*
+	 * The copy constructor gives a match independent of the other one, so that a
+	 * worker thread or an analysis can branch from a position and try its moves
+	 * without touching the original match
+	 * 
+	 * The bitboards are copied as flat arrays instead of placing every piece again,
+	 * the board only receives a new instance of each piece on the same square and
+	 * with the same move count. The captured pieces are off the board and don't
+	 * change anymore, so both matches share them
+	 */
+	public ChessMatch(ChessMatch other) {
+		board = new ChessBoard(other.board);
+		turn = other.turn;
+		currentPlayer = other.currentPlayer;
+		check = other.check;
+		checkMate = other.checkMate;
+		
+		for(Piece p : other.piecesOnTheBoard) {
+			ChessPiece piece = (ChessPiece)p;
+			ChessPiece copy = newPiece(piece.getPieceType(), piece.getColor());
+			copy.copyMoveCount(piece);
+			board.copyPiece(copy, piece.getSquare());
+			piecesOnTheBoard.add(copy);
+			
+			if(piece == other.enPassantVulnerable) {
+				enPassantVulnerable = copy;
+			}
+			if(piece == other.promoted) {
+				promoted = copy;
+			}
+		}
+		capturedPieces.addAll(other.capturedPieces);
+		snapshot = other.snapshot;
+		
+		//The captured pieces are shared, so the copy can't take back the moves before it
+	}
+
+	/*
+	 * A match can start from any position given by a FEN, for example:
+	 * 
+	 * r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1
+	 * 
+	 * The turn counts the moves of both players, so it comes from the full move
+	 * number and the side to move. In a CHECK MATE position the turn is the one of
+	 * the move that gave it, as in a match that has just played it
+	 * 
+	 * The toFen() writes the current position, the match doesn't count the moves
+	 * since the last capture or pawn move, so the half move clock is always 0
+	 */
+	public static ChessMatch fromFen(CharSequence fen) {
+		BitboardPosition position = Fen.parse(fen);
+		int fullMoveNumber = Fen.fullMoveNumber(fen);
+		int turn = 2 * fullMoveNumber - ((position.getSideToMove() == Bitboard.WHITE) ? 1 : 0);
+		
+		ChessMatch chessMatch = new ChessMatch(PositionSnapshot.of(position, turn));
+		if(chessMatch.checkMate && turn > 1) {
+			chessMatch.turn--;
+			chessMatch.snapshot = PositionSnapshot.of(position, chessMatch.turn);
+		}
+		return chessMatch;
+	}
+	
+	public String toFen() {
+		//After a CHECK MATE the turn wasn't passed to the player to move
+		int nextTurn = checkMate ? turn + 1 : turn;
+		return Fen.toFen(board.getBitboard(), 0, (nextTurn + 1) / 2);
 	}
 
 	public Integer getTurn() {
@@ -72,6 +223,36 @@ public class ChessMatch {
 	public ChessPiece getPromoted() {
 		return promoted;
 	}
+	
+	/*
+	 * The pieces captured since the start of the match, in the order they were
+	 * captured
+	 */
+	public List<ChessPiece> getCapturedPieces() {
+		return capturedPieces.stream().map(x -> (ChessPiece)x).collect(Collectors.toList());
+	}
+	
+	/*
+	 * The snapshot of the position after the last move, it is immutable and is
+	 * published in a volatile field, so any thread can read it without locks while
+	 * the match goes on
+	 */
+	public PositionSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	public BitboardPosition getBitboard() {
+		return board.getBitboard();
+	}
+	
+	/*
+	 * The position key is the Zobrist hash of the current position, two matches with
+	 * the same pieces on the same squares, the same player to move, castling rights
+	 * and en passant possibility have the same key
+	 */
+	public long getPositionKey() {
+		return board.getBitboard().getKey();
+	}
 
 	/*
 	 * The ChessPiece method must return a matrix of ChessPieces in the defined
@@ -98,7 +279,7 @@ public class ChessMatch {
 	 * UI become more user friendly and more dynamic
 	 */
 	public boolean[][] possibleMoves(ChessPosition sourcePosition) {
-		Position position = sourcePosition.toPosition();
+		Square position = board.square(sourcePosition.toSquare());
 
 		validateSourcePosition(position);
 
@@ -118,37 +299,81 @@ public class ChessMatch {
 	 * 
 	 * With the testCheck() implemented, now we update the performChessMove() in
 	 * order to test if the movement made caused the match to be in a Check State,
-	 * also, we consider if the currentPlayer didn't put himself under Check State,
-	 * in case of it, the movement must be undone
+	 * also, we consider if the currentPlayer didn't put himself under Check State
+	 * 
+	 * Instead of making the move and undoing it when it leaves the King in check,
+	 * the move is searched among the legal moves given by the MoveGenerator, which
+	 * already knows the pinned pieces and the squares that solve a check
 	 * 
 	 * performChessMove now evaluates the possibility of the special movement
 	 * en passant
 	 */
 	public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
-		Position source = sourcePosition.toPosition();
-		Position target = targetPosition.toPosition();
-
-		validateSourcePosition(source);
-		validateTargetPosition(source, target);
-
-		Piece capturedPiece = makeMove(source, target);
-		
-		if(testCheck(currentPlayer)) {
-			undoMove(source, target, capturedPiece);
+		return performChessMove(board.square(sourcePosition.toSquare()), board.square(targetPosition.toSquare()), Bitboard.QUEEN);
+	}
+	
+	/*
+	 * The performChessMove() also accepts a move encoded by the Move class, only its
+	 * source, target and promotion piece are considered, the flags are checked by the
+	 * MoveGenerator. Without a promotion piece the pawn is promoted to a Queen
+	 */
+	public ChessPiece performChessMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int promotion = (Move.promotion(move) != 0) ? Move.promotion(move) : Bitboard.QUEEN;
+		return performChessMove(board.square(from), board.square(to), promotion);
+	}
+	
+	/*
+	 * Encodes the move from the source to the target in the current position, with
+	 * the flags that the pieces on the board tell (capture, castling, en passant...)
+	 */
+	public int encodeMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
+		return Move.of(board.getBitboard(), sourcePosition.toSquare(), targetPosition.toSquare(), Bitboard.QUEEN);
+	}
+	
+	/*
+	 * A legal move always passes the validation of the source and the target, so
+	 * they are only validated to tell why a move was refused
+	 */
+	private ChessPiece performChessMove(Square source, Square target, int promotion) {
+		int move = MoveGenerator.findLegalMove(board.getBitboard(), square(source), square(target), promotion, moveBuffer());
+		if(move == MoveGenerator.NO_MOVE) {
+			validateSourcePosition(source);
+			validateTargetPosition(source, target);
 			throw new ChessException("You can't put yourself under check");
 		}
 		
+		long record = undoRecord(move);
+		long key = board.getBitboard().getKey();
+
+		Piece capturedPiece = makeMove(source, target);
+		
 		ChessPiece movedPiece = (ChessPiece)board.piece(target);
+		pushUndoRecord(record | ((capturedPiece != null) ? CAPTURED : 0), key, movedPiece);
 		
 		//#Special Move - Promotion
 		promoted = null;
 		if(movedPiece instanceof Pawn) {
 			if((movedPiece.getColor() == Color.WHITE && target.getRow() == 0) || (movedPiece.getColor() == Color.BLACK && target.getRow() == 7)) {
 				promoted = (ChessPiece)board.piece(target);
-				promoted = replacePromotedPiece("Q");
+				promoted = replacePiece(PROMOTION_TYPES[promotion - Bitboard.KNIGHT]);
 			}
 		}
 		
+		//#Special Move - En Passant (source with -2 or +2 to consider both colors)
+		/*
+		 * The pawn becomes vulnerable before testing the CHECK MATE, so that the
+		 * opponent's en passant capture is considered as a way out of the check
+		 */
+		if(movedPiece instanceof Pawn && (target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2)) {
+			enPassantVulnerable = movedPiece;
+		} else {
+			enPassantVulnerable = null;
+		}
+		
+		updateBitboardState(opponent(currentPlayer));
+		
 		check = (testCheck(opponent(currentPlayer))) ? true : false;
 		
 		if(testCheckMate(opponent(currentPlayer))) {
@@ -157,28 +382,48 @@ public class ChessMatch {
 			nextTurn();			
 		}
 		
-		//#Special Move - En Passant (source with -2 or +2 to consider both colors)
-		if(movedPiece instanceof Pawn && (target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2)) {
-			enPassantVulnerable = movedPiece;
-		} else {
-			enPassantVulnerable = null;
-		}
+		snapshot = PositionSnapshot.of(board.getBitboard(), turn);
 		
 		return (ChessPiece) capturedPiece;
 	}
 	
 	//#Special Move - Promotion
+	/*
+	 * The chosen piece may not give the CHECK or the CHECK MATE that the Queen gave,
+	 * or the opposite, so both are tested again, and the turn goes to the opponent
+	 * or comes back to the player who promoted as the match ends or goes on
+	 */
 	public ChessPiece replacePromotedPiece(String type) {
 		if(promoted == null) {
 			throw new IllegalStateException("There is no piece to be promoted");
 		}
 		
+		ChessPiece newPiece = replacePiece(type);
+		
+		Color player = checkMate ? currentPlayer : opponent(currentPlayer);
+		check = testCheck(opponent(player));
+		boolean mate = testCheckMate(opponent(player));
+		if(mate && !checkMate) {
+			//As in the performChessMove(), the player who gave the CHECK MATE stays as the current one
+			turn--;
+			currentPlayer = player;
+		} else if(!mate && checkMate) {
+			nextTurn();
+		}
+		checkMate = mate;
+		snapshot = PositionSnapshot.of(board.getBitboard(), turn);
+		
+		return newPiece;
+	}
+	
+	//Aux. method for promotion, also used by the performChessMove() before the CHECK tests
+	private ChessPiece replacePiece(String type) {
 		if(!type.equals("B") && !type.equals("N") && !type.equals("R") && !type.equals("Q")) {
 			return promoted;
 		}
 		
 		//Remove the instanceof Pawn found in the performChessMove test
-		Position pos = promoted.getChessPosition().toPosition();
+		Square pos = board.square(promoted.getChessPosition().toSquare());
 		Piece p = board.removePiece(pos);
 		piecesOnTheBoard.remove(p);
 		
@@ -186,10 +431,156 @@ public class ChessMatch {
 		ChessPiece newPiece = newPiece(type, promoted.getColor());
 		board.placePiece(newPiece, pos);
 		piecesOnTheBoard.add(newPiece);
+		promoted = newPiece;
+		
+		//The move of the undo record is redone with the chosen piece
+		if(ply > 0 && Move.promotion((int)undoRecords[ply - 1]) != 0) {
+			int move = (int)undoRecords[ply - 1] & 0xFFFF;
+			int promotion = Bitboard.KNIGHT + Arrays.asList(PROMOTION_TYPES).indexOf(type);
+			move = Move.ofPromotion(Move.from(move), Move.to(move), promotion, Move.isCapture(move));
+			undoRecords[ply - 1] = (undoRecords[ply - 1] & ~0xFFFFL) | move;
+		}
 		
 		return newPiece;
 	}
 	
+	/*
+	 * The undoMove() takes back the last move played, in constant time: the moved
+	 * piece goes back to its source, the captured piece (the last one of the list)
+	 * back to its square, and the rest of the state comes from the undo record
+	 * instead of being computed again. The position key must be the same of before
+	 * the move, which is checked
+	 * 
+	 * The moves taken back can be played again, in the same order, by the
+	 * redoMove(), until a different move is played by the performChessMove()
+	 * 
+	 * A match copied or rebuilt from a snapshot starts without moves to undo
+	 */
+	public boolean canUndo() {
+		return ply > 0;
+	}
+	
+	public boolean canRedo() {
+		return ply < plyCount;
+	}
+	
+	/*
+	 * The moves played up to the current ply, encoded by the Move class
+	 */
+	public int[] getMoveHistory() {
+		int[] history = new int[ply];
+		for(int i = 0; i < ply; i++) {
+			history[i] = (int)undoRecords[i] & 0xFFFF;
+		}
+		return history;
+	}
+	
+	public int undoMove() {
+		if(!canUndo()) {
+			throw new IllegalStateException("There is no move to undo");
+		}
+		
+		long record = undoRecords[--ply];
+		int move = (int)record & 0xFFFF;
+		int from = Move.from(move);
+		int to = Move.to(move);
+		
+		ChessPiece p = (ChessPiece)board.removePiece(to);
+		//#Special Move - Promotion, the pawn comes back instead of the new piece
+		if(Move.promotion(move) != 0) {
+			piecesOnTheBoard.remove(p);
+			p = promotedPawns[ply];
+			promotedPawns[ply] = null;
+			piecesOnTheBoard.add(p);
+		}
+		board.placePiece(p, from);
+		p.decreaseMoveCount();
+		
+		if((record & CAPTURED) != 0) {
+			ChessPiece capturedPiece = (ChessPiece)capturedPieces.remove(capturedPieces.size() - 1);
+			//#Special Move - En Passant, the captured pawn is beside the source
+			int square = Move.isEnPassant(move) ? Bitboard.square(Bitboard.row(from), Bitboard.column(to)) : to;
+			board.placePiece(capturedPiece, square);
+			piecesOnTheBoard.add(capturedPiece);
+		}
+		
+		//#Special Move - Castling, the Rook goes back to its corner
+		if(Move.isCastling(move)) {
+			boolean kingSide = Move.flags(move) == Move.KING_CASTLE;
+			ChessPiece rook = (ChessPiece)board.removePiece(kingSide ? from + 1 : from - 1);
+			board.placePiece(rook, kingSide ? from + 3 : from - 4);
+			rook.decreaseMoveCount();
+		}
+		
+		int vulnerable = (int)(record >>> 18) & 0x7F;
+		enPassantVulnerable = (vulnerable == NO_SQUARE) ? null : (ChessPiece)board.piece(vulnerable);
+		promoted = null;
+		check = (record & IN_CHECK) != 0;
+		
+		//After a CHECK MATE the turn and the current player didn't change
+		if(checkMate) {
+			checkMate = false;
+		} else {
+			turn--;
+			currentPlayer = opponent(currentPlayer);
+		}
+		
+		BitboardPosition bitboard = board.getBitboard();
+		bitboard.setSideToMove(currentPlayer.ordinal());
+		bitboard.setCastlingRights((int)(record >>> 25) & 0xF);
+		int enPassantSquare = (int)(record >>> 29) & 0x7F;
+		bitboard.setEnPassantSquare((enPassantSquare == NO_SQUARE) ? Bitboard.EMPTY : enPassantSquare);
+		if(bitboard.getKey() != undoKeys[ply]) {
+			/*
+			 * This kind of exception MUST NEVER happen, the undo record must restore the
+			 * position exactly as it was
+			 */
+			throw new IllegalStateException("The position after undoing " + Move.toString(move) + " is not the same of before it");
+		}
+		snapshot = PositionSnapshot.of(bitboard, turn);
+		
+		return move;
+	}
+	
+	/*
+	 * Plays again the last move taken back, the records after it are kept, so that
+	 * the whole line can be replayed move by move
+	 */
+	public ChessPiece redoMove() {
+		if(!canRedo()) {
+			throw new IllegalStateException("There is no move to redo");
+		}
+		
+		int count = plyCount;
+		int move = (int)undoRecords[ply] & 0xFFFF;
+		ChessPiece capturedPiece = performChessMove(move);
+		plyCount = count;
+		return capturedPiece;
+	}
+	
+	//Aux. methods for the undo records
+	private long undoRecord(int move) {
+		BitboardPosition bitboard = board.getBitboard();
+		int vulnerable = (enPassantVulnerable == null) ? NO_SQUARE : enPassantVulnerable.getSquare();
+		int enPassantSquare = (bitboard.getEnPassantSquare() == Bitboard.EMPTY) ? NO_SQUARE : bitboard.getEnPassantSquare();
+		return move | (check ? IN_CHECK : 0) | ((long)vulnerable << 18) | ((long)bitboard.getCastlingRights() << 25)
+				| ((long)enPassantSquare << 29);
+	}
+	
+	private void pushUndoRecord(long record, long key, ChessPiece movedPiece) {
+		if(ply == undoRecords.length) {
+			int length = Math.max(64, ply * 2);
+			undoRecords = Arrays.copyOf(undoRecords, length);
+			undoKeys = Arrays.copyOf(undoKeys, length);
+			promotedPawns = Arrays.copyOf(promotedPawns, length);
+		}
+		undoRecords[ply] = record;
+		undoKeys[ply] = key;
+		promotedPawns[ply] = (Move.promotion((int)record & 0xFFFF) != 0) ? movedPiece : null;
+		ply++;
+		plyCount = ply;
+	}
+	
 	//Aux. method for promotion
 	private ChessPiece newPiece(String type, Color color) {
 		if(type.equals("B")) return new Bishop(board, color);
@@ -198,6 +589,18 @@ public class ChessMatch {
 		return new Queen(board, color);
 	}
 
+	//Aux. method for the copy and the setup of a match, by the type of the bitboards
+	private ChessPiece newPiece(int type, Color color) {
+		switch(type) {
+		case Bitboard.PAWN: return new Pawn(board, color, this);
+		case Bitboard.KNIGHT: return new Knight(board, color);
+		case Bitboard.BISHOP: return new Bishop(board, color);
+		case Bitboard.ROOK: return new Rook(board, color);
+		case Bitboard.QUEEN: return new Queen(board, color);
+		default: return new King(board, color, this);
+		}
+	}
+
 	/*
 	 * Our makeMove(source, target) will need the source position and a target one,
 	 * based on the Chess rules, every time we make a move to capture a piece we
@@ -209,7 +612,7 @@ public class ChessMatch {
 	 * Now with the lists, we can remove the piece on the board and consider it as a
 	 * captured one on our printMatch() within the UI
 	 */
-	private Piece makeMove(Position source, Position target) {
+	private Piece makeMove(Square source, Square target) {
 		ChessPiece p = (ChessPiece)board.removePiece(source);
 		p.increaseMoveCount();
 		Piece capturedPiece = board.removePiece(target);
@@ -223,8 +626,8 @@ public class ChessMatch {
 		
 		//#Special Move - King side Rook ("Small Castling")
 		if(p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetT = new Position(source.getRow(), source.getColumn() + 1);
+			Square sourceT = Square.valueOf(source.getRow(), source.getColumn() + 3);
+			Square targetT = Square.valueOf(source.getRow(), source.getColumn() + 1);
 			ChessPiece rook = (ChessPiece)board.removePiece(sourceT);
 			board.placePiece(rook, targetT);
 			rook.increaseMoveCount();
@@ -232,8 +635,8 @@ public class ChessMatch {
 		
 		//#Special Move - Queen side Rook ("Great Castling")
 		if(p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetT = new Position(source.getRow(), source.getColumn() - 1);
+			Square sourceT = Square.valueOf(source.getRow(), source.getColumn() - 4);
+			Square targetT = Square.valueOf(source.getRow(), source.getColumn() - 1);
 			ChessPiece rook = (ChessPiece)board.removePiece(sourceT);
 			board.placePiece(rook, targetT);
 			rook.increaseMoveCount();
@@ -251,11 +654,11 @@ public class ChessMatch {
 		*/
 		if(p instanceof Pawn) {
 			if(source.getColumn() != target.getColumn() && capturedPiece == null) {
-				Position pawnPosition;
+				Square pawnPosition;
 				if(p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(target.getRow() + 1, target.getColumn());
+					pawnPosition = Square.valueOf(target.getRow() + 1, target.getColumn());
 				} else {
-					pawnPosition = new Position(target.getRow() - 1, target.getColumn());
+					pawnPosition = Square.valueOf(target.getRow() - 1, target.getColumn());
 				}
 				
 				capturedPiece = board.removePiece(pawnPosition);
@@ -267,71 +670,6 @@ public class ChessMatch {
 		return capturedPiece;
 	}
 	
-	/*
-	 * The undoMove() will take action whenever a player make an invalid move, for
-	 * instance, put itself under CHECK
-	*/
-	private void undoMove(Position source, Position target, Piece capturedPiece) {
-		ChessPiece p = (ChessPiece)board.removePiece(target);
-		p.decreaseMoveCount();
-		board.placePiece(p, source);
-		
-		if(capturedPiece != null) {
-			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
-			piecesOnTheBoard.add(capturedPiece);
-		}
-		
-		//#Special Move - King side Rook ("Small Castling")
-		if(p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetT = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece rook = (ChessPiece)board.removePiece(targetT);
-			board.placePiece(rook, sourceT);
-			rook.decreaseMoveCount();
-		}
-		
-		//#Special Move - Queen side Rook ("Great Castling")
-		if(p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetT = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece rook = (ChessPiece)board.removePiece(targetT);
-			board.placePiece(rook, sourceT);
-			rook.decreaseMoveCount();
-		}
-		
-		//#Special Move - En Passant
-		/*
-		 * Here we follow basically the same logic of the makeMove, but following
-		 * the inverse logic to undoMove, note that the common undoMove return the
-		 * piece to its source position, considering a normal capture, and again
-		 * we must undo the movement manually, as it doesn't follow the common
-		 * capture logic
-		*/
-		if(p instanceof Pawn) {
-			if(source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-				//We remove it from the wrong source (the old target, as the general logic
-				//of the undoMove informs)
-				ChessPiece pawn = (ChessPiece)board.removePiece(target);
-				Position pawnPosition;
-				if(p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(3, target.getColumn());
-				} else {
-					pawnPosition = new Position(4, target.getColumn());
-				}
-				
-				board.placePiece(pawn, pawnPosition);
-				/*
-				 * We don't need to do the remove and add in the list because our general
-				 * undoMove logic already deals with this, placing the piece in the "wrong"
-				 * source, our job is just to move it to the correct position according to the
-				 * en passant logic
-				 */
-			}
-		}
-		
-	}
-
 	/*
 	 * The thereIsAPiece() method can throw a BoardException, the
 	 * validateSourcePosition throw a ChessException, we can consider that a
@@ -352,7 +690,7 @@ public class ChessMatch {
 	 * implement another ChessExcepetion considering that the player can only select
 	 * the source of its own pieces
 	 */
-	private void validateSourcePosition(Position position) {
+	private void validateSourcePosition(Square position) {
 		if (!board.thereIsAPiece(position)) {
 			throw new ChessException("There is no piece on source position");
 		}
@@ -370,7 +708,7 @@ public class ChessMatch {
 	 * To validate a target position, we check if the piece position (source) within
 	 * the defined board have a possibility to move to its target
 	 */
-	private void validateTargetPosition(Position source, Position target) {
+	private void validateTargetPosition(Square source, Square target) {
 		if (!board.piece(source).possibleMove(target)) {
 			throw new ChessException("The chosen piece can't move to target position");
 		}
@@ -393,8 +731,8 @@ public class ChessMatch {
 	 * opponent(color) 	- The objective is to return the color of the opponent's
 	 * 					pieces in general
 	 * 
-	 * king(color) 		- The objective is to return the king of the opponent
-	 * 					color
+	 * getKing(color) 	- The objective is to return the king of the given
+	 * 					color, from the square tracked by the bitboards
 	 * 
 	 * testCheck(color)	- The method will check the position of the player's
 	 * 					king and verify if any of the opponent's pieces can move
@@ -404,81 +742,116 @@ public class ChessMatch {
 		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 	
-	private ChessPiece king(Color color) {
-		List<Piece> list = 	piecesOnTheBoard.stream()
-							.filter(x -> ((ChessPiece)x).getColor() == color)
-							.collect(Collectors.toList());
-		
-		for(Piece p : list) {
-			if(p instanceof King) {
-				return (ChessPiece)p;
-			}
-		}
-		/*
-		 * This kind of exception MUST NEVER happen, although it is necessary to throw
-		 * it to prevent application crash
-		 */
-		throw new IllegalStateException("There is no " + color + " king on the board");
-	}
-	
-	private boolean testCheck(Color color) {
-		Position kingPosition = king(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces =	piecesOnTheBoard.stream()
-										.filter(x -> ((ChessPiece)x).getColor() == opponent(color))
-										.collect(Collectors.toList());
-		for(Piece p : opponentPieces) {
-			boolean[][] mat = p.possibleMoves();
-			if(mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-				return true;
-			}
+	/*
+	 * The King of each color doesn't need to be searched among the pieces, the
+	 * bitboards track its square as it's placed and removed, which covers the
+	 * makeMove(), the promotion and the Rook and King moves of the castling
+	 */
+	public ChessPiece getKing(Color color) {
+		int square = kingSquare(color);
+		return (ChessPiece)board.piece(Bitboard.row(square), Bitboard.column(square));
+	}
+	
+	private int kingSquare(Color color) {
+		int square = board.getBitboard().getKingSquare(color.ordinal());
+		if(square == Bitboard.EMPTY) {
+			/*
+			 * This kind of exception MUST NEVER happen, although it is necessary to throw
+			 * it to prevent application crash
+			 */
+			throw new IllegalStateException("There is no " + color + " king on the board");
 		}
-		return false;
+		return square;
 	}
 	
-	private boolean testCheckMate(Color color) {
+	/*
+	 * The testCheck() doesn't need to ask every opponent piece for its moves, the
+	 * bitboards keep the squares attacked by each color up to date as the pieces
+	 * are placed and removed, so the test is a lookup of the King's square
+	 * 
+	 * The testCheck() and the testCheckMate() are package-private so that the
+	 * benchmarks of the chess package can measure them
+	 */
+	boolean testCheck(Color color) {
+		return board.getBitboard().isAttacked(kingSquare(color), opponent(color).ordinal());
+	}
+	
+	/*
+	 * The testCheckMate() doesn't need to try every possible move of the player to
+	 * find one that takes the King out of check, if the MoveGenerator finds no legal
+	 * move for a player in CHECK state, it is CHECK MATE!
+	 * 
+	 * The bitboards must already have the color as the side to move
+	 */
+	boolean testCheckMate(Color color) {
 		//First test if it isn't in CHECK state
 		if(!testCheck(color)) {
 			return false;
 		}
 		
-		//Gather all pieces of the player's color in the board
-		List<Piece> list =	 piecesOnTheBoard.stream()
-							.filter(x -> ((ChessPiece)x).getColor() == color)
-							.collect(Collectors.toList());
-		
-		//Now go through all pieces in the list
-		for(Piece p : list) {
-			//All possibleMoves() of p in the matrix
-			boolean[][] mat = p.possibleMoves();
-			//Go through all lines
-			for(int i = 0; i<board.getRows(); i++) {
-				//Go through all columns
-				for(int j = 0; j<board.getColumns(); j++) {
-					//Is the position in the board a possibleMove()?
-					if(mat[i][j]) {
-						//If yes:
-						//Gather the source and target positions
-						Position source = ((ChessPiece)p).getChessPosition().toPosition();
-						Position target = new Position(i, j);
-						
-						//Make the move to test if the move put the player in CHECK state
-						Piece capturedPiece = makeMove(source, target);
-						boolean testCheck = testCheck(color);
-						//Undo the move after the test
-						undoMove(source, target, capturedPiece);
-						//Does this possibleMove() removes the player's King of CHECK state?
-						if(!testCheck) {
-							//If yes:
-							//CHECK state vanishes
-							return false;
-						}
-					}
-				}
+		return MoveGenerator.generateLegalMoves(board.getBitboard(), moveBuffer()) == 0;
+	}
+	
+	/*
+	 * The buffer is only created when the match generates its first moves, so a copy
+	 * that is only read (or thrown away) doesn't pay for it
+	 */
+	private int[] moveBuffer() {
+		if(moves == null) {
+			moves = new int[MoveGenerator.MAX_MOVES];
+		}
+		return moves;
+	}
+	
+	/*
+	 * The bitboards receive the rest of the state of the match that the move
+	 * generation needs: the side to move, the castling rights and the square behind
+	 * the pawn vulnerable to en passant
+	 * 
+	 * The castling rights are derived from the move count of the Kings and Rooks on
+	 * their initial squares, just like the castling conditions of the King
+	 */
+	private void updateBitboardState(Color sideToMove) {
+		BitboardPosition bitboard = board.getBitboard();
+		bitboard.setSideToMove(sideToMove.ordinal());
+		
+		int rights = 0;
+		if(testCastlingPiece(7, 4, King.class, Color.WHITE)) {
+			if(testCastlingPiece(7, 7, Rook.class, Color.WHITE)) rights |= BitboardPosition.WHITE_KING_SIDE;
+			if(testCastlingPiece(7, 0, Rook.class, Color.WHITE)) rights |= BitboardPosition.WHITE_QUEEN_SIDE;
+		}
+		if(testCastlingPiece(0, 4, King.class, Color.BLACK)) {
+			if(testCastlingPiece(0, 7, Rook.class, Color.BLACK)) rights |= BitboardPosition.BLACK_KING_SIDE;
+			if(testCastlingPiece(0, 0, Rook.class, Color.BLACK)) rights |= BitboardPosition.BLACK_QUEEN_SIDE;
+		}
+		bitboard.setCastlingRights(rights);
+		
+		/*
+		 * The en passant square is only recorded when an opponent pawn is beside the
+		 * vulnerable pawn, otherwise the capture is impossible and the position must
+		 * be the same (and have the same key) as if the pawn had moved one by one
+		 */
+		int enPassantSquare = Bitboard.EMPTY;
+		if(enPassantVulnerable != null) {
+			//The square the pawn has just jumped over
+			int color = enPassantVulnerable.getColor().ordinal();
+			int behind = (enPassantVulnerable.getColor() == Color.WHITE) ? 8 : -8;
+			int square = enPassantVulnerable.getSquare() + behind;
+			if((Attacks.pawn(color, square) & bitboard.getPieces(Bitboard.opponent(color), Bitboard.PAWN)) != 0) {
+				enPassantSquare = square;
 			}
 		}
-		//If my loop ends, and no possibleMove() removes the CHECK state, it is CHECK MATE!
-		//So, returns true
-		return true;
+		bitboard.setEnPassantSquare(enPassantSquare);
+	}
+	
+	//Aux. method to test if a King or a Rook that never moved is on the position
+	private boolean testCastlingPiece(int row, int column, Class<? extends ChessPiece> type, Color color) {
+		ChessPiece p = (ChessPiece)board.piece(row, column);
+		return p != null && type.isInstance(p) && p.getColor() == color && p.getMoveCount() == 0;
+	}
+	
+	private static int square(Square position) {
+		return Bitboard.square(position.getRow(), position.getColumn());
 	}
 	
 	/*
@@ -491,10 +864,49 @@ public class ChessMatch {
 	 */
 
 	private void placeNewPiece(char column, int row, ChessPiece piece) {
-		board.placePiece(piece, new ChessPosition(column, row).toPosition());
+		board.placePiece(piece, board.square(new ChessPosition(column, row).toSquare()));
 		piecesOnTheBoard.add(piece);
 	}
 	
+	//Places the pieces of a snapshot, with the move count explained in the constructor
+	private void setupPosition(PositionSnapshot snapshot) {
+		int rights = snapshot.getCastlingRights();
+		long occupied = snapshot.getOccupied();
+		while(occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			int code = snapshot.pieceAt(square);
+			int row = Bitboard.row(square);
+			int column = Bitboard.column(square);
+			Color color = (Bitboard.colorOf(code) == Bitboard.WHITE) ? Color.WHITE : Color.BLACK;
+			int homeRow = (color == Color.WHITE) ? 7 : 0;
+			int kingSide = (color == Color.WHITE) ? BitboardPosition.WHITE_KING_SIDE : BitboardPosition.BLACK_KING_SIDE;
+			int queenSide = (color == Color.WHITE) ? BitboardPosition.WHITE_QUEEN_SIDE : BitboardPosition.BLACK_QUEEN_SIDE;
+			
+			ChessPiece piece = newPiece(Bitboard.typeOf(code), color);
+			boolean moved;
+			switch(Bitboard.typeOf(code)) {
+			case Bitboard.PAWN:
+				moved = row != ((color == Color.WHITE) ? 6 : 1);
+				break;
+			case Bitboard.ROOK:
+				moved = !(row == homeRow && ((column == 7 && (rights & kingSide) != 0) || (column == 0 && (rights & queenSide) != 0)));
+				break;
+			case Bitboard.KING:
+				moved = !(row == homeRow && column == 4 && (rights & (kingSide | queenSide)) != 0);
+				break;
+			default:
+				moved = true;
+				break;
+			}
+			if(moved) {
+				piece.increaseMoveCount();
+			}
+			board.placePiece(piece, board.index(row, column));
+			piecesOnTheBoard.add(piece);
+		}
+	}
+	
 	/*
 	 * 8 R N B - K B N R 
 	 * 7 P P P P P P P P 
@@ -0,0 +1,170 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+
+/*
+ * The ChessMatchPerft walks the move tree of a ChessMatch itself, instead of the
+ * bitboards alone as the Perft does: the moves come from the possibleMoves() of
+ * each ChessPiece (the King castling, the Pawn en passant and promotion...), they
+ * are played by the performChessMove() and taken back by the undoMove()
+ *
+ * The moves of the pieces don't know about the King left in check, so at each
+ * position they are compared with the legal moves of the MoveGenerator, which
+ * validates the performChessMove() too. A move of a piece that the generator
+ * doesn't give must leave the King in check, which is tested by making it on the
+ * bitboards, and every legal move must be given by a piece. Any other difference
+ * throws an IllegalStateException with the position and the move, as does a legal
+ * move that the match refuses, and a wrong move or undo of the match changes the
+ * following counts
+ *
+ * The walk is made over a copy of the match, the original one is not changed
+*/
+public class ChessMatchPerft {
+
+	//Room for the moves of every piece, with the 4 promotions of each pawn move
+	private static final int BUFFER_SIZE = 512;
+
+	private final ChessMatch chessMatch;
+	private final int[][] moves;
+	private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+	private final BitboardPosition position = new BitboardPosition();
+
+	public ChessMatchPerft(ChessMatch chessMatch, int maxDepth) {
+		this.chessMatch = new ChessMatch(chessMatch);
+		moves = new int[Math.max(maxDepth, 1)][BUFFER_SIZE];
+	}
+
+	public static long perft(ChessMatch chessMatch, int depth) {
+		return new ChessMatchPerft(chessMatch, depth).perft(depth);
+	}
+
+	public long perft(int depth) {
+		if (depth > moves.length) {
+			throw new IllegalArgumentException("Depth " + depth + " is greater than the maximum depth " + moves.length);
+		}
+		return (depth == 0) ? 1L : count(depth);
+	}
+
+	/*
+	 * The count of each move of the root position, as the Perft.divide()
+	*/
+	public Map<String, Long> divide(int depth) {
+		if (depth < 1 || depth > moves.length) {
+			throw new IllegalArgumentException("Invalid depth for divide: " + depth);
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		int[] buffer = moves[depth - 1];
+		int count = legalMoves(buffer);
+		for (int i = 0; i < count; i++) {
+			play(buffer[i]);
+			result.put(Move.toString(buffer[i]), (depth == 1) ? 1L : count(depth - 1));
+			chessMatch.undoMove();
+		}
+		return result;
+	}
+
+	private long count(int depth) {
+		//After the CHECK MATE the match is over, there is no move to count
+		if (chessMatch.getCheckMate()) {
+			return 0L;
+		}
+		int[] buffer = moves[depth - 1];
+		int count = legalMoves(buffer);
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			play(buffer[i]);
+			nodes += (depth == 1) ? 1L : count(depth - 1);
+			chessMatch.undoMove();
+		}
+		return nodes;
+	}
+
+	private void play(int move) {
+		try {
+			chessMatch.performChessMove(move);
+		} catch (ChessException e) {
+			throw difference("the match refuses the legal move", move, e);
+		}
+	}
+
+	/*
+	 * The moves of the pieces that are legal, checked against the MoveGenerator as
+	 * told above, they are kept at the start of the buffer and their number returned
+	*/
+	private int legalMoves(int[] buffer) {
+		int count = generateMoves(buffer);
+		BitboardPosition bitboard = chessMatch.getBitboard();
+		int legalCount = MoveGenerator.generateLegalMoves(bitboard, legalMoves);
+		position.copyFrom(bitboard);
+		int us = position.getSideToMove();
+
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			boolean legal = contains(legalMoves, legalCount, move);
+			position.makeMove(move);
+			boolean inCheck = position.isInCheck(us);
+			position.unmakeMove(move);
+			if (legal == inCheck) {
+				throw difference(legal ? "the generator gives a move that leaves the King in check"
+						: "a piece gives a move that the generator doesn't", move, null);
+			}
+			if (legal) {
+				buffer[kept++] = move;
+			}
+		}
+		if (kept != legalCount) {
+			for (int i = 0; i < legalCount; i++) {
+				if (!contains(buffer, kept, legalMoves[i])) {
+					throw difference("no piece gives the legal move", legalMoves[i], null);
+				}
+			}
+		}
+		return kept;
+	}
+
+	private static boolean contains(int[] moves, int count, int move) {
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private IllegalStateException difference(String message, int move, Exception cause) {
+		return new IllegalStateException(chessMatch.toFen() + ": " + message + " " + Move.toString(move), cause);
+	}
+
+	/*
+	 * The possible moves of every piece of the current player. A pawn move to the
+	 * last row is given as a promotion to a Queen, the other 3 pieces are added
+	*/
+	private int generateMoves(int[] buffer) {
+		ChessPiece[][] pieces = chessMatch.getPieces();
+		int count = 0;
+		for (ChessPiece[] row : pieces) {
+			for (ChessPiece piece : row) {
+				if (piece != null && piece.getColor() == chessMatch.getCurrentPlayer()) {
+					count = piece.possibleMoves(buffer, count);
+				}
+			}
+		}
+		int total = count;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			if (Move.promotion(move) != 0) {
+				for (int type = Bitboard.KNIGHT; type < Bitboard.QUEEN; type++) {
+					buffer[total++] = Move.ofPromotion(Move.from(move), Move.to(move), type, Move.isCapture(move));
+				}
+			}
+		}
+		return total;
+	}
+}
@@ -3,6 +3,9 @@ package chess;
 import boardGame.Board;
 import boardGame.Piece;
 import boardGame.Position;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Move;
 
 /*
  * As we defined the Piece Class as an abstract one, the ChessPiece is obliged to
@@ -38,6 +41,50 @@ public abstract class ChessPiece extends Piece {
 		moveCount--;
 	}
 	
+	//Aux. method for the copy of a match, the copy of a piece has the same move count
+	void copyMoveCount(ChessPiece piece) {
+		moveCount = piece.moveCount;
+	}
+	
+	/*
+	 * Each piece informs its type as one of the constants of the Bitboard class, so
+	 * that the ChessBoard knows which bitboard must receive the piece
+	*/
+	public abstract int getPieceType();
+	
+	/*
+	 * Every chess piece computes its moves directly as a set of target squares, the
+	 * matrix of the possibleMoves() is only built for who really needs it, like the
+	 * UI highlighting the possible moves
+	*/
+	@Override
+	public abstract long possibleMovesMask();
+	
+	@Override
+	public boolean[][] possibleMoves() {
+		return toMatrix(possibleMovesMask());
+	}
+	
+	/*
+	 * The possibleMoves(moves, count) writes the possible moves of the piece in the
+	 * buffer provided by the caller, starting at the index count, each one encoded
+	 * as an int by the Move class (with its flags, a promotion is to a Queen), and
+	 * returns the new number of moves in the buffer
+	 * 
+	 * The same buffer can be reused to gather the moves of all pieces of a player
+	 * without allocating anything, the buffer must have room for 27 more moves,
+	 * which is the most a single piece (a Queen) can have
+	*/
+	public int possibleMoves(int[] moves, int count) {
+		int from = getSquare();
+		long targets = possibleMovesMask();
+		while(targets != 0) {
+			moves[count++] = Move.of(getBitboard(), from, Long.numberOfTrailingZeros(targets), Bitboard.QUEEN);
+			targets &= targets - 1;
+		}
+		return count;
+	}
+	
 	public ChessPosition getChessPosition() {
 		return ChessPosition.fromPosition(position);
 	}
@@ -56,4 +103,27 @@ public abstract class ChessPiece extends Piece {
 		ChessPiece p = (ChessPiece)getBoard().piece(position);
 		return p != null && p.getColor() != color;
 	}
+	
+	/*
+	 * Auxiliary methods for the pieces that generate their moves with the attack
+	 * tables: the bitboards of the ChessBoard, the square of the piece and the
+	 * conversion of a set of target squares back to the matrix of possible moves
+	 */
+	protected BitboardPosition getBitboard() {
+		return ((ChessBoard)getBoard()).getBitboard();
+	}
+	
+	protected int getSquare() {
+		return Bitboard.square(square.getRow(), square.getColumn());
+	}
+	
+	protected boolean[][] toMatrix(long moves) {
+		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+		while(moves != 0) {
+			int square = Long.numberOfTrailingZeros(moves);
+			mat[Bitboard.row(square)][Bitboard.column(square)] = true;
+			moves &= moves - 1;
+		}
+		return mat;
+	}
 }
@@ -7,6 +7,15 @@ public class ChessPosition {
 	private Character column;
 	private Integer row;
 	
+	//The instances returned by the fromSquare(), one for each square
+	private static final ChessPosition[] SQUARES = new ChessPosition[64];
+	
+	static {
+		for(int square = 0; square < 64; square++) {
+			SQUARES[square] = new ChessPosition((char)('a' + square % 8), 8 - square / 8);
+		}
+	}
+	
 	public ChessPosition() {
 		
 	}
@@ -59,6 +68,25 @@ public class ChessPosition {
 		return new ChessPosition((char)('a' + position.getColumn()), 8 - position.getRow());
 	}
 	
+	/*
+	 * The bitboards and the moves encoded by the Move class number the squares from
+	 * 0 (a8) to 63 (h1), row by row as the matrix does, so the square of a position
+	 * is its matrix row * 8 + its matrix column
+	 * 
+	 * A ChessPosition can't be changed, so the fromSquare() always returns the same
+	 * instance for a square, without allocating anything
+	*/
+	public int toSquare() {
+		return (8 - row) * 8 + (column - 'a');
+	}
+	
+	public static ChessPosition fromSquare(int square) {
+		if(square < 0 || square > 63) {
+			throw new ChessException("Error converting square " + square + ". Valid values are from 0 to 63");
+		}
+		return SQUARES[square];
+	}
+	
 	/*
 	 * This override consists on the correct printing of the chess position, the empty
 	 * String before the column and row is for the compiler understands that this is
@@ -0,0 +1,61 @@
+package chess.archive;
+
+/*
+ * The game file keeps the games in a compact binary form, with an index that
+ * allows reading any game without going through the ones before it:
+ *
+ * header	- magic number "CHGF" (int), version (int), number of games (long) and
+ * 			the offset of the index (long)
+ * games	- one record after the other, each one with:
+ * 			number of plies (unsigned short)
+ * 			result (byte), one of the constants below
+ * 			flags (byte), bit 0 on when the game starts from a FEN
+ * 			the FEN, if any: length (unsigned short) and ASCII chars
+ * 			the moves, 16 bits each, encoded by the Move class
+ * index	- the offset of each game record (long), in the order of the games
+ *
+ * All the numbers are big-endian. A move takes 2 bytes, about a fifth of the
+ * same move written in a PGN, and the moves are read without parsing any text
+*/
+public final class GameFile {
+
+	public static final int MAGIC = 0x43484746;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 24;
+
+	public static final int UNKNOWN = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int BLACK_WINS = 2;
+	public static final int DRAW = 3;
+
+	static final int FLAG_FEN = 1;
+
+	/*
+	 * The plies are written in an unsigned short, but one is kept back so every
+	 * position of a game, up to the one after its last move, has a ply that fits
+	 * in the 16 bits of a position index entry
+	*/
+	public static final int MAX_PLIES = 0xFFFF - 1;
+
+	private static final String[] RESULTS = { "*", "1-0", "0-1", "1/2-1/2" };
+
+	private GameFile() {
+
+	}
+
+	/*
+	 * The result constant of a PGN result, UNKNOWN for "*" or anything else
+	*/
+	public static int result(String result) {
+		for (int i = WHITE_WINS; i < RESULTS.length; i++) {
+			if (RESULTS[i].equals(result)) {
+				return i;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	public static String resultToString(int result) {
+		return RESULTS[result];
+	}
+}
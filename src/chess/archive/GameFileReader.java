@@ -0,0 +1,151 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessMatch;
+import chess.bitboard.Move;
+
+/*
+ * The GameFileReader maps a game file (see GameFile) in memory and reads any game
+ * straight from its offset in the index, without reading the games before it
+ *
+ * The reader doesn't change after it is opened, so it can be used by many threads
+ * at the same time
+*/
+public class GameFileReader implements Closeable {
+
+	private final FileChannel channel;
+	private final MappedFile file;
+	private final int gameCount;
+	private final long indexOffset;
+
+	public GameFileReader(Path path) throws IOException {
+		this(path, MappedFile.SEGMENT_BITS);
+	}
+
+	GameFileReader(Path path, int segmentBits) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			file = new MappedFile(channel, size, segmentBits);
+
+			if (size < GameFile.HEADER_SIZE || file.getInt(0) != GameFile.MAGIC) {
+				throw new IOException(path + " is not a game file");
+			}
+			if (file.getInt(4) != GameFile.VERSION) {
+				throw new IOException("Unsupported game file version: " + file.getInt(4));
+			}
+			long games = file.getLong(8);
+			indexOffset = file.getLong(16);
+			if (games < 0 || games > Integer.MAX_VALUE || indexOffset < GameFile.HEADER_SIZE
+					|| indexOffset + games * 8 > size) {
+				throw new IOException(path + " is incomplete or corrupted");
+			}
+			gameCount = (int) games;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	public int getPlyCount(int game) {
+		return file.getChar(offset(game));
+	}
+
+	/*
+	 * The result of the game, one of the GameFile constants
+	*/
+	public int getResult(int game) {
+		return file.getByte(offset(game) + 2);
+	}
+
+	/*
+	 * The FEN the game starts from, or null if it starts from the initial setup
+	*/
+	public String getFen(int game) {
+		long offset = offset(game);
+		if ((file.getByte(offset + 3) & GameFile.FLAG_FEN) == 0) {
+			return null;
+		}
+		int length = file.getChar(offset + 4);
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) file.getByte(offset + 6 + i);
+		}
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+	/*
+	 * The move of the ply, encoded by the Move class
+	*/
+	public int getMove(int game, int ply) {
+		long offset = offset(game);
+		if (ply < 0 || ply >= file.getChar(offset)) {
+			throw new IndexOutOfBoundsException("Ply " + ply + " of game " + game);
+		}
+		return Move.fromShort((short) file.getChar(movesOffset(offset) + 2L * ply));
+	}
+
+	/*
+	 * Copies the moves of the game into the buffer, which must have room for all of
+	 * them, and returns how many they are
+	*/
+	public int getMoves(int game, int[] buffer) {
+		long offset = offset(game);
+		int plies = file.getChar(offset);
+		long at = movesOffset(offset);
+		for (int ply = 0; ply < plies; ply++, at += 2) {
+			buffer[ply] = Move.fromShort((short) file.getChar(at));
+		}
+		return plies;
+	}
+
+	/*
+	 * Plays the moves of the game on a new ChessMatch, from the initial setup or from
+	 * its FEN, and returns it
+	*/
+	public ChessMatch replay(int game) {
+		String fen = getFen(game);
+		ChessMatch chessMatch = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		long offset = offset(game);
+		int plies = file.getChar(offset);
+		long at = movesOffset(offset);
+		for (int ply = 0; ply < plies; ply++, at += 2) {
+			chessMatch.performChessMove(Move.fromShort((short) file.getChar(at)));
+		}
+		return chessMatch;
+	}
+
+	private long offset(int game) {
+		if (game < 0 || game >= gameCount) {
+			throw new IndexOutOfBoundsException("Game " + game + " of " + gameCount);
+		}
+		return file.getLong(indexOffset + 8L * game);
+	}
+
+	// The moves come after the plies, the result, the flags and the FEN, if any
+	private long movesOffset(long offset) {
+		if ((file.getByte(offset + 3) & GameFile.FLAG_FEN) == 0) {
+			return offset + 4;
+		}
+		return offset + 6 + file.getChar(offset + 4);
+	}
+
+	/*
+	 * Closing the reader only closes the channel, the mapped file stays valid until
+	 * it is garbage collected
+	*/
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,148 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.bitboard.Move;
+import chess.pgn.PgnGame;
+
+/*
+ * The GameFileWriter writes a game file (see GameFile), one game after the other,
+ * through a fixed direct buffer. The offsets of the games are kept until the
+ * close(), which writes the index at the end of the file and then the header, so
+ * a file is only complete after it is closed
+*/
+public class GameFileWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private long position = GameFile.HEADER_SIZE;
+	private long[] offsets = new long[1024];
+	private int games;
+	private boolean closed;
+
+	// Reusable buffer for the moves of a PgnGame
+	private int[] moves = new int[256];
+
+	public GameFileWriter(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		channel.position(GameFile.HEADER_SIZE);
+	}
+
+	/*
+	 * Writes a game from its moves, encoded by the Move class, its result (one of the
+	 * GameFile constants) and the FEN it starts from, null for the initial setup
+	*/
+	public void write(int[] moves, int plies, int result, String fen) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("The game file is closed");
+		}
+		if (plies < 0 || plies > GameFile.MAX_PLIES) {
+			throw new IllegalArgumentException("A game must have from 0 to " + GameFile.MAX_PLIES + " plies");
+		}
+		if (result < GameFile.UNKNOWN || result > GameFile.DRAW) {
+			throw new IllegalArgumentException("Unknown result: " + result);
+		}
+		byte[] fenBytes = (fen != null) ? fen.getBytes(StandardCharsets.US_ASCII) : null;
+		if (fenBytes != null && fenBytes.length > 0xFFFF) {
+			throw new IllegalArgumentException("FEN too long");
+		}
+
+		if (games == offsets.length) {
+			offsets = Arrays.copyOf(offsets, games * 2);
+		}
+		offsets[games++] = position;
+
+		ensureRoom(4);
+		buffer.putChar((char) plies);
+		buffer.put((byte) result);
+		buffer.put((byte) ((fenBytes != null) ? GameFile.FLAG_FEN : 0));
+		position += 4;
+
+		if (fenBytes != null) {
+			ensureRoom(2);
+			buffer.putChar((char) fenBytes.length);
+			position += 2;
+			ensureRoom(fenBytes.length);
+			buffer.put(fenBytes);
+			position += fenBytes.length;
+		}
+
+		for (int ply = 0; ply < plies; ply++) {
+			ensureRoom(2);
+			buffer.putShort(Move.toShort(moves[ply]));
+		}
+		position += 2L * plies;
+	}
+
+	/*
+	 * Writes a game with the moves found by its last replay(), which must have gone
+	 * to the end of the game
+	*/
+	public void write(PgnGame game) throws IOException {
+		int plies = game.getPlyCount();
+		if (moves.length < plies) {
+			moves = new int[plies];
+		}
+		for (int ply = 0; ply < plies; ply++) {
+			moves[ply] = game.getMove(ply);
+		}
+		write(moves, plies, GameFile.result(game.getResult()), game.getTag("FEN"));
+	}
+
+	public int getGameCount() {
+		return games;
+	}
+
+	private void ensureRoom(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			long indexOffset = position;
+			for (int i = 0; i < games; i++) {
+				ensureRoom(8);
+				buffer.putLong(offsets[i]);
+			}
+			flush();
+
+			buffer.putInt(GameFile.MAGIC);
+			buffer.putInt(GameFile.VERSION);
+			buffer.putLong(games);
+			buffer.putLong(indexOffset);
+			buffer.flip();
+			long at = 0;
+			while (buffer.hasRemaining()) {
+				at += channel.write(buffer, at);
+			}
+			buffer.clear();
+		} finally {
+			channel.close();
+		}
+	}
+}
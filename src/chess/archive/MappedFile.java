@@ -0,0 +1,77 @@
+package chess.archive;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ * A read only file mapped in memory. A MappedByteBuffer can't go over 2 GB, so
+ * the file is mapped in segments of 1 GB, and a number that crosses two segments
+ * is read byte by byte
+ *
+ * The pages of the file are loaded by the operating system as they are read, and
+ * are shared by every reader of the same file. The mapped segments stay valid
+ * until they are garbage collected, even after the channel is closed
+*/
+final class MappedFile {
+
+	static final int SEGMENT_BITS = 30;
+
+	private final MappedByteBuffer[] segments;
+	private final long size;
+	private final int segmentBits;
+	private final long segmentSize;
+	private final long segmentMask;
+
+	MappedFile(FileChannel channel, long size) throws IOException {
+		this(channel, size, SEGMENT_BITS);
+	}
+
+	// The tests map small segments, so that the numbers cross them
+	MappedFile(FileChannel channel, long size, int segmentBits) throws IOException {
+		if (segmentBits < 3 || segmentBits > SEGMENT_BITS) {
+			throw new IllegalArgumentException("Invalid segment size: 2 ^ " + segmentBits);
+		}
+		this.size = size;
+		this.segmentBits = segmentBits;
+		segmentSize = 1L << segmentBits;
+		segmentMask = segmentSize - 1;
+		segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) >>> segmentBits)];
+		for (int i = 0; i < segments.length; i++) {
+			long start = (long) i << segmentBits;
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+		}
+	}
+
+	long size() {
+		return size;
+	}
+
+	int getByte(long at) {
+		return segments[(int) (at >>> segmentBits)].get((int) (at & segmentMask)) & 0xFF;
+	}
+
+	int getChar(long at) {
+		int index = (int) (at & segmentMask);
+		if (index <= segmentSize - 2) {
+			return segments[(int) (at >>> segmentBits)].getChar(index);
+		}
+		return (getByte(at) << 8) | getByte(at + 1);
+	}
+
+	int getInt(long at) {
+		int index = (int) (at & segmentMask);
+		if (index <= segmentSize - 4) {
+			return segments[(int) (at >>> segmentBits)].getInt(index);
+		}
+		return (getChar(at) << 16) | getChar(at + 2);
+	}
+
+	long getLong(long at) {
+		int index = (int) (at & segmentMask);
+		if (index <= segmentSize - 8) {
+			return segments[(int) (at >>> segmentBits)].getLong(index);
+		}
+		return ((long) getInt(at) << 32) | (getInt(at + 4) & 0xFFFFFFFFL);
+	}
+}
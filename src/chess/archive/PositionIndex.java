@@ -0,0 +1,68 @@
+package chess.archive;
+
+/*
+ * The position index finds the games, and the ply in each game, where a position
+ * was reached. It is a file of sorted runs, each one written at once, after the
+ * ones before it, so the file is only ever appended to:
+ *
+ * run		- magic number "CHPI" (int), bucket bits (int) and number of entries
+ * 			(long)
+ * 			the buckets: 2 ^ bits + 1 longs, the first entry of each bucket, the
+ * 			last one is the number of entries
+ * 			the entries, sorted by key: the key of the position (long), given by
+ * 			the Zobrist hashing, and the game and the ply (long)
+ *
+ * The first bits of a key tell its bucket, and the buckets have about 8 entries
+ * each, so a lookup reads the bucket and searches a few entries next to each
+ * other, in every run. Each run costs a lookup about two reads from memory, so
+ * the PositionIndexWriter.compact() merges all the runs into a single one once
+ * the games are added
+ *
+ * All the numbers are big-endian, and the keys are compared as unsigned numbers
+*/
+public final class PositionIndex {
+
+	public static final int MAGIC = 0x43485049;
+	public static final int RUN_HEADER_SIZE = 16;
+	public static final int ENTRY_SIZE = 16;
+
+	static final int MAX_BUCKET_BITS = 24;
+
+	private PositionIndex() {
+
+	}
+
+	/*
+	 * An entry keeps the game in the high bits and the ply in the low 16 bits, the
+	 * ply is the number of moves made in the game to reach the position
+	*/
+	public static final int MAX_PLY = 0xFFFF;
+
+	public static long entry(int game, int ply) {
+		return ((long) game << 16) | ply;
+	}
+
+	public static int game(long entry) {
+		return (int) (entry >>> 16);
+	}
+
+	public static int ply(long entry) {
+		return (int) (entry & 0xFFFF);
+	}
+
+	// Buckets of about 8 entries, as long as the table of buckets isn't too large
+	static int bucketBits(long entries) {
+		if (entries < 16) {
+			return 0;
+		}
+		return Math.min(MAX_BUCKET_BITS, 63 - Long.numberOfLeadingZeros(entries) - 3);
+	}
+
+	static int bucket(long key, int bits) {
+		return (bits == 0) ? 0 : (int) (key >>> (64 - bits));
+	}
+
+	static long runSize(int bits, long entries) {
+		return RUN_HEADER_SIZE + 8L * ((1 << bits) + 1) + ENTRY_SIZE * entries;
+	}
+}
@@ -0,0 +1,178 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * The PositionIndexReader maps a position index (see PositionIndex) in memory and
+ * finds the entries of a key with a few reads in each run
+ *
+ * Only the runs that were complete when the reader was opened are read, a run
+ * that is still being appended by a PositionIndexWriter is left out, so a new
+ * reader must be opened to see the runs written after it
+ *
+ * The reader doesn't change after it is opened, so it can be used by many threads
+ * at the same time
+*/
+public class PositionIndexReader implements Closeable {
+
+	private final FileChannel channel;
+	private final MappedFile file;
+	private final int[] runBits;
+	private final long[] runBuckets;
+	private final long[] runEntries;
+	private final long[] runCounts;
+	private final long entryCount;
+
+	public PositionIndexReader(Path path) throws IOException {
+		this(path, MappedFile.SEGMENT_BITS);
+	}
+
+	PositionIndexReader(Path path, int segmentBits) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			file = new MappedFile(channel, size, segmentBits);
+
+			int runs = 0;
+			int[] bits = new int[16];
+			long[] buckets = new long[16];
+			long[] entries = new long[16];
+			long[] counts = new long[16];
+			long total = 0;
+			long offset = 0;
+			while (offset + PositionIndex.RUN_HEADER_SIZE <= size) {
+				if (file.getInt(offset) != PositionIndex.MAGIC) {
+					throw new IOException(path + " is not a position index");
+				}
+				int runBits = file.getInt(offset + 4);
+				long count = file.getLong(offset + 8);
+				if (runBits < 0 || runBits > PositionIndex.MAX_BUCKET_BITS || count < 0) {
+					throw new IOException(path + " is corrupted");
+				}
+				long runSize = PositionIndex.runSize(runBits, count);
+				if (offset + runSize > size) {
+					break;
+				}
+				if (runs == bits.length) {
+					bits = Arrays.copyOf(bits, runs * 2);
+					buckets = Arrays.copyOf(buckets, runs * 2);
+					entries = Arrays.copyOf(entries, runs * 2);
+					counts = Arrays.copyOf(counts, runs * 2);
+				}
+				bits[runs] = runBits;
+				buckets[runs] = offset + PositionIndex.RUN_HEADER_SIZE;
+				entries[runs] = buckets[runs] + 8L * ((1 << runBits) + 1);
+				counts[runs] = count;
+				runs++;
+				total += count;
+				offset += runSize;
+			}
+			runBits = Arrays.copyOf(bits, runs);
+			runBuckets = Arrays.copyOf(buckets, runs);
+			runEntries = Arrays.copyOf(entries, runs);
+			runCounts = Arrays.copyOf(counts, runs);
+			entryCount = total;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public long getEntryCount() {
+		return entryCount;
+	}
+
+	public int getRunCount() {
+		return runBits.length;
+	}
+
+	/*
+	 * Copies the entries of the key into the buffer, as many as it can take, and
+	 * returns how many entries the key has. The entries of each run are sorted by
+	 * game and ply, and the runs come in the order they were written
+	*/
+	public int lookup(long key, long[] buffer) {
+		int found = 0;
+		for (int run = 0; run < runBits.length; run++) {
+			long i = firstEntry(run, key);
+			long end = runCounts[run];
+			for (; i < end && key(run, i) == key; i++) {
+				if (found < buffer.length) {
+					buffer[found] = entry(run, i);
+				}
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/*
+	 * The entries of the key, see PositionIndex.game() and PositionIndex.ply()
+	*/
+	public long[] lookup(long key) {
+		long[] buffer = new long[16];
+		int found = lookup(key, buffer);
+		if (found > buffer.length) {
+			buffer = new long[found];
+			lookup(key, buffer);
+		}
+		return Arrays.copyOf(buffer, found);
+	}
+
+	public int count(long key) {
+		int found = 0;
+		for (int run = 0; run < runBits.length; run++) {
+			long i = firstEntry(run, key);
+			long end = runCounts[run];
+			for (; i < end && key(run, i) == key; i++) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/*
+	 * The first entry of the run with a key that isn't lower than the given one,
+	 * searched only in the bucket of the key
+	*/
+	private long firstEntry(int run, long key) {
+		long bucket = runBuckets[run] + 8L * PositionIndex.bucket(key, runBits[run]);
+		long low = file.getLong(bucket);
+		long high = file.getLong(bucket + 8);
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(key(run, middle), key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	long key(int run, long i) {
+		return file.getLong(runEntries[run] + PositionIndex.ENTRY_SIZE * i);
+	}
+
+	long entry(int run, long i) {
+		return file.getLong(runEntries[run] + PositionIndex.ENTRY_SIZE * i + 8);
+	}
+
+	long getRunEntryCount(int run) {
+		return runCounts[run];
+	}
+
+	/*
+	 * Closing the reader only closes the channel, the mapped file stays valid until
+	 * it is garbage collected
+	*/
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,409 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+
+/*
+ * The PositionIndexWriter appends entries to a position index (see PositionIndex).
+ * The entries are kept in memory until there are as many as the size of a run,
+ * then they are sorted and written as a new run at the end of the file, the runs
+ * already written are never changed
+ *
+ * When the writer opens an index, a run left incomplete at the end of the file,
+ * by a writer that didn't get to finish it, is cut off
+*/
+public class PositionIndexWriter implements Closeable {
+
+	public static final int DEFAULT_RUN_SIZE = 1 << 22;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int INSERTION_SORT_SIZE = 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final long[] keys;
+	private final long[] entries;
+	private int count;
+	private boolean closed;
+
+	// Reusable position and moves for the games
+	private final BitboardPosition position = new BitboardPosition();
+	private int[] moves = new int[256];
+
+	public PositionIndexWriter(Path path) throws IOException {
+		this(path, DEFAULT_RUN_SIZE);
+	}
+
+	public PositionIndexWriter(Path path, int runSize) throws IOException {
+		if (runSize < 1) {
+			throw new IllegalArgumentException("A run must have at least one entry");
+		}
+		keys = new long[runSize];
+		entries = new long[runSize];
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			channel.truncate(completeRuns(path));
+			channel.position(channel.size());
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * The size of the complete runs at the start of the file
+	*/
+	private long completeRuns(Path path) throws IOException {
+		long size = channel.size();
+		long offset = 0;
+		ByteBuffer header = ByteBuffer.allocate(PositionIndex.RUN_HEADER_SIZE);
+		while (offset + PositionIndex.RUN_HEADER_SIZE <= size) {
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.read(header, offset + header.position());
+			}
+			if (header.getInt(0) != PositionIndex.MAGIC) {
+				throw new IOException(path + " is not a position index");
+			}
+			int bits = header.getInt(4);
+			long runEntries = header.getLong(8);
+			if (bits < 0 || bits > PositionIndex.MAX_BUCKET_BITS || runEntries < 0) {
+				throw new IOException(path + " is corrupted");
+			}
+			long runSize = PositionIndex.runSize(bits, runEntries);
+			if (offset + runSize > size) {
+				break;
+			}
+			offset += runSize;
+		}
+		return offset;
+	}
+
+	/*
+	 * Adds the position with the given key, reached at the ply of the game
+	*/
+	public void add(long key, int game, int ply) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("The position index is closed");
+		}
+		if (game < 0 || ply < 0 || ply > PositionIndex.MAX_PLY) {
+			throw new IllegalArgumentException("Invalid game " + game + " or ply " + ply);
+		}
+		keys[count] = key;
+		entries[count] = PositionIndex.entry(game, ply);
+		if (++count == keys.length) {
+			flush();
+		}
+	}
+
+	/*
+	 * Replays the game of the game file and adds every position of it, from the one
+	 * it starts from, at ply 0, to the one after its last move. The moves of a game
+	 * file are legal, so they are made straight on a BitboardPosition
+	*/
+	public void addGame(GameFileReader games, int game) throws IOException {
+		addGame(games, game, game);
+	}
+
+	private void addGame(GameFileReader games, int game, int id) throws IOException {
+		int plies = games.getPlyCount(game);
+		if (moves.length < plies) {
+			moves = new int[plies];
+		}
+		games.getMoves(game, moves);
+		String fen = games.getFen(game);
+		Fen.parse((fen != null) ? fen : Fen.INITIAL_POSITION, position);
+
+		add(position.getKey(), id, 0);
+		for (int ply = 0; ply < plies; ply++) {
+			position.makeMove(moves[ply]);
+			add(position.getKey(), id, ply + 1);
+		}
+	}
+
+	/*
+	 * Adds every game of the game file, the game numbers are the ones of the file
+	*/
+	public void addGames(GameFileReader games) throws IOException {
+		addGames(games, 0);
+	}
+
+	/*
+	 * Adds every game of the game file numbered from the first game on, so that the
+	 * games of several files can share the index: the games of the next file start
+	 * after the last one of this file. The numbers of a file that is added again
+	 * must be the same, or its positions are found twice, as the index has no way
+	 * to tell which entries came from which file
+	*/
+	public void addGames(GameFileReader games, int firstGame) throws IOException {
+		if (firstGame < 0 || (long) firstGame + games.getGameCount() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid first game " + firstGame);
+		}
+		for (int game = 0; game < games.getGameCount(); game++) {
+			addGame(games, game, firstGame + game);
+		}
+	}
+
+	/*
+	 * Writes the entries kept in memory as a new run, so they can be found by the
+	 * readers opened after it
+	*/
+	public void flush() throws IOException {
+		if (count == 0) {
+			return;
+		}
+		sort(keys, entries, 0, count - 1);
+
+		int bits = PositionIndex.bucketBits(count);
+		long[] buckets = new long[(1 << bits) + 1];
+		for (int i = 0; i < count; i++) {
+			buckets[PositionIndex.bucket(keys[i], bits) + 1]++;
+		}
+		for (int i = 1; i < buckets.length; i++) {
+			buckets[i] += buckets[i - 1];
+		}
+
+		putInt(PositionIndex.MAGIC);
+		putInt(bits);
+		putLong(count);
+		for (long bucket : buckets) {
+			putLong(bucket);
+		}
+		for (int i = 0; i < count; i++) {
+			putLong(keys[i]);
+			putLong(entries[i]);
+		}
+		writeBuffer();
+		count = 0;
+	}
+
+	/*
+	 * Merges all the runs of the index into a single run, in a new file that then
+	 * takes the place of the index. The readers already open keep reading the old
+	 * file, and there must be no writer open on the index
+	*/
+	public static void compact(Path index) throws IOException {
+		Path target = index.resolveSibling(index.getFileName() + ".compact");
+		compact(index, target);
+		Files.move(target, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/*
+	 * Merges all the runs of the source index into a single run, written to the
+	 * target, so that a lookup searches only one run. The entries of a key keep the
+	 * order of the game and the ply
+	*/
+	public static void compact(Path source, Path target) throws IOException {
+		try (PositionIndexReader reader = new PositionIndexReader(source);
+				FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			int runs = reader.getRunCount();
+			long total = reader.getEntryCount();
+			int bits = PositionIndex.bucketBits(total);
+			long[] buckets = new long[(1 << bits) + 1];
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+			// The buckets are written after the entries are merged
+			long entriesOffset = PositionIndex.RUN_HEADER_SIZE + 8L * buckets.length;
+			out.position(entriesOffset);
+
+			// A heap of the runs, ordered by their next entry
+			long[] next = new long[runs];
+			int[] heap = new int[runs];
+			int heapSize = 0;
+			for (int run = 0; run < runs; run++) {
+				if (reader.getRunEntryCount(run) > 0) {
+					heap[heapSize] = run;
+					siftUp(reader, heap, next, heapSize++);
+				}
+			}
+
+			while (heapSize > 0) {
+				int run = heap[0];
+				long key = reader.key(run, next[run]);
+				long entry = reader.entry(run, next[run]);
+				buckets[PositionIndex.bucket(key, bits) + 1]++;
+				if (buffer.remaining() < PositionIndex.ENTRY_SIZE) {
+					write(out, buffer);
+				}
+				buffer.putLong(key);
+				buffer.putLong(entry);
+
+				if (++next[run] == reader.getRunEntryCount(run)) {
+					heap[0] = heap[--heapSize];
+				}
+				siftDown(reader, heap, next, heapSize);
+			}
+			write(out, buffer);
+
+			for (int i = 1; i < buckets.length; i++) {
+				buckets[i] += buckets[i - 1];
+			}
+			out.position(0);
+			buffer.putInt(PositionIndex.MAGIC);
+			buffer.putInt(bits);
+			buffer.putLong(total);
+			for (long bucket : buckets) {
+				if (buffer.remaining() < 8) {
+					write(out, buffer);
+				}
+				buffer.putLong(bucket);
+			}
+			write(out, buffer);
+		}
+	}
+
+	private static boolean lower(PositionIndexReader reader, int run, long i, int otherRun, long otherI) {
+		int compare = Long.compareUnsigned(reader.key(run, i), reader.key(otherRun, otherI));
+		if (compare == 0) {
+			return reader.entry(run, i) < reader.entry(otherRun, otherI);
+		}
+		return compare < 0;
+	}
+
+	private static void siftUp(PositionIndexReader reader, int[] heap, long[] next, int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!lower(reader, heap[i], next[heap[i]], heap[parent], next[heap[parent]])) {
+				return;
+			}
+			swap(heap, i, parent);
+			i = parent;
+		}
+	}
+
+	private static void siftDown(PositionIndexReader reader, int[] heap, long[] next, int size) {
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				return;
+			}
+			if (child + 1 < size && lower(reader, heap[child + 1], next[heap[child + 1]], heap[child], next[heap[child]])) {
+				child++;
+			}
+			if (!lower(reader, heap[child], next[heap[child]], heap[i], next[heap[i]])) {
+				return;
+			}
+			swap(heap, i, child);
+			i = child;
+		}
+	}
+
+	private static void swap(int[] heap, int i, int j) {
+		int temp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = temp;
+	}
+
+	/*
+	 * Quicksort of the keys, as unsigned numbers, and then of the entries, moving the
+	 * entries with their keys. The smaller side is sorted first, so the recursion
+	 * never goes deeper than the logarithm of the number of entries
+	*/
+	private static void sort(long[] keys, long[] entries, int low, int high) {
+		while (high - low >= INSERTION_SORT_SIZE) {
+			int middle = (low + high) >>> 1;
+			long pivotKey = keys[middle];
+			long pivotEntry = entries[middle];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (compare(keys[i], entries[i], pivotKey, pivotEntry) < 0) {
+					i++;
+				}
+				while (compare(keys[j], entries[j], pivotKey, pivotEntry) > 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(keys, entries, i++, j--);
+				}
+			}
+			if (j - low < high - i) {
+				sort(keys, entries, low, j);
+				low = i;
+			} else {
+				sort(keys, entries, i, high);
+				high = j;
+			}
+		}
+
+		for (int i = low + 1; i <= high; i++) {
+			long key = keys[i];
+			long entry = entries[i];
+			int j = i - 1;
+			while (j >= low && compare(keys[j], entries[j], key, entry) > 0) {
+				keys[j + 1] = keys[j];
+				entries[j + 1] = entries[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			entries[j + 1] = entry;
+		}
+	}
+
+	private static int compare(long key, long entry, long otherKey, long otherEntry) {
+		int compare = Long.compareUnsigned(key, otherKey);
+		return (compare != 0) ? compare : Long.compare(entry, otherEntry);
+	}
+
+	private static void swap(long[] keys, long[] entries, int i, int j) {
+		long key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		long entry = entries[i];
+		entries[i] = entries[j];
+		entries[j] = entry;
+	}
+
+	private void putInt(int value) throws IOException {
+		if (buffer.remaining() < 4) {
+			writeBuffer();
+		}
+		buffer.putInt(value);
+	}
+
+	private void putLong(long value) throws IOException {
+		if (buffer.remaining() < 8) {
+			writeBuffer();
+		}
+		buffer.putLong(value);
+	}
+
+	private void writeBuffer() throws IOException {
+		write(channel, buffer);
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/*
+	 * Writes the entries kept in memory as the last run and closes the file
+	*/
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			closed = true;
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.WHITE;
+import static chess.bitboard.Bitboard.bit;
+import static chess.bitboard.Bitboard.column;
+import static chess.bitboard.Bitboard.row;
+import static chess.bitboard.Bitboard.square;
+
+/*
+ * The Attacks class holds the precomputed attack tables used by the move generation
+ * 
+ * For the Knight, the King and the Pawn captures the attacked squares never depend
+ * on the other pieces, so a table of 64 entries per piece is enough, built once
+ * when the class is loaded
+ * 
+ * For the sliding pieces (Rook, Bishop and Queen) the attacks depend on the pieces
+ * placed along the rays, for them we use the "magic bitboards" technique: only the
+ * squares of the rays that may block the piece are considered (the mask), and
+ * multiplying these occupied squares by a magic number gathers them in the highest
+ * bits of the product, which becomes the index of a table with all the attack sets
+ * of that square. The Java platform has no PEXT instruction available, so the magic
+ * multiplication is the portable way to do this lookup
+ * 
+ * The magic numbers below were found by a random search for the square layout of
+ * the Bitboard class (a8 = 0, h1 = 63), so only the tables are built when the class
+ * is loaded
+*/
+public final class Attacks {
+
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+	private static final int[][] KNIGHT_STEPS = { { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 }, { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 } };
+	private static final int[][] KING_STEPS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+	private static final long[] KNIGHT = new long[64];
+	private static final long[] KING = new long[64];
+	private static final long[][] PAWN = new long[2][64];
+
+	private static final long[] ROOK_MASK = new long[64];
+	private static final long[] ROOK_MAGIC = {
+		0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+		0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+		0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+		0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+		0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+		0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+		0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+		0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+		0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+		0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+		0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+		0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+		0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+		0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+		0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+		0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+	};
+	private static final int[] ROOK_SHIFT = new int[64];
+	private static final long[][] ROOK_TABLE = new long[64][];
+
+	private static final long[] BISHOP_MASK = new long[64];
+	private static final long[] BISHOP_MAGIC = {
+		0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+		0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+		0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+		0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+		0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+		0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+		0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+		0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+		0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+		0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+		0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+		0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+		0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+		0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+		0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+		0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+	};
+	private static final int[] BISHOP_SHIFT = new int[64];
+	private static final long[][] BISHOP_TABLE = new long[64][];
+
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	static {
+		for (int sq = 0; sq < 64; sq++) {
+			KNIGHT[sq] = steps(sq, KNIGHT_STEPS);
+			KING[sq] = steps(sq, KING_STEPS);
+			// White pawns capture towards row 0, black pawns towards row 7
+			PAWN[WHITE][sq] = steps(sq, new int[][] { { -1, -1 }, { -1, 1 } });
+			PAWN[BLACK][sq] = steps(sq, new int[][] { { 1, -1 }, { 1, 1 } });
+
+			ROOK_MASK[sq] = mask(sq, ROOK_DIRECTIONS);
+			BISHOP_MASK[sq] = mask(sq, BISHOP_DIRECTIONS);
+			ROOK_SHIFT[sq] = 64 - Long.bitCount(ROOK_MASK[sq]);
+			BISHOP_SHIFT[sq] = 64 - Long.bitCount(BISHOP_MASK[sq]);
+			ROOK_TABLE[sq] = table(sq, ROOK_DIRECTIONS, ROOK_MASK[sq], ROOK_MAGIC[sq]);
+			BISHOP_TABLE[sq] = table(sq, BISHOP_DIRECTIONS, BISHOP_MASK[sq], BISHOP_MAGIC[sq]);
+		}
+
+		for (int a = 0; a < 64; a++) {
+			for (int b = 0; b < 64; b++) {
+				if (a == b) {
+					continue;
+				}
+				if ((rook(a, 0L) & bit(b)) != 0) {
+					BETWEEN[a][b] = rook(a, bit(b)) & rook(b, bit(a));
+					LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | bit(a) | bit(b);
+				} else if ((bishop(a, 0L) & bit(b)) != 0) {
+					BETWEEN[a][b] = bishop(a, bit(b)) & bishop(b, bit(a));
+					LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | bit(a) | bit(b);
+				}
+			}
+		}
+	}
+
+	private Attacks() {
+
+	}
+
+	public static long knight(int square) {
+		return KNIGHT[square];
+	}
+
+	public static long king(int square) {
+		return KING[square];
+	}
+
+	/*
+	 * Squares attacked by a pawn of the given color standing on the square, which are
+	 * the diagonal capture squares, not the squares it moves forward to
+	*/
+	public static long pawn(int color, int square) {
+		return PAWN[color][square];
+	}
+
+	public static long rook(int square, long occupied) {
+		return ROOK_TABLE[square][(int) (((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+	}
+
+	public static long bishop(int square, long occupied) {
+		return BISHOP_TABLE[square][(int) (((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+	}
+
+	public static long queen(int square, long occupied) {
+		return rook(square, occupied) | bishop(square, occupied);
+	}
+
+	/*
+	 * Squares strictly between two squares on the same row, column or diagonal, or
+	 * an empty set if they are not aligned
+	*/
+	public static long between(int from, int to) {
+		return BETWEEN[from][to];
+	}
+
+	/*
+	 * The whole line (from edge to edge of the board) that passes through two
+	 * aligned squares, or an empty set if they are not aligned
+	*/
+	public static long line(int from, int to) {
+		return LINE[from][to];
+	}
+
+	private static boolean inside(int row, int column) {
+		return row >= 0 && row < 8 && column >= 0 && column < 8;
+	}
+
+	private static long steps(int sq, int[][] steps) {
+		long result = 0L;
+		for (int[] s : steps) {
+			int r = row(sq) + s[0];
+			int c = column(sq) + s[1];
+			if (inside(r, c)) {
+				result |= bit(square(r, c));
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * The mask of a slider holds the squares of its rays except the last one of each
+	 * ray, as a piece on the edge of the board can't block anything behind it
+	*/
+	private static long mask(int sq, int[][] directions) {
+		long result = 0L;
+		for (int[] d : directions) {
+			int r = row(sq) + d[0];
+			int c = column(sq) + d[1];
+			while (inside(r + d[0], c + d[1])) {
+				result |= bit(square(r, c));
+				r += d[0];
+				c += d[1];
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Reference slider attacks, walking the rays one square at a time just like the
+	 * pieces used to do, used only to fill the magic tables
+	*/
+	private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+		long result = 0L;
+		for (int[] d : directions) {
+			int r = row(sq) + d[0];
+			int c = column(sq) + d[1];
+			while (inside(r, c)) {
+				long b = bit(square(r, c));
+				result |= b;
+				if ((occupied & b) != 0) {
+					break;
+				}
+				r += d[0];
+				c += d[1];
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Every subset of the mask is enumerated (the "carry rippler" trick) and its
+	 * attack set is stored in the entry selected by the magic multiplication
+	*/
+	private static long[] table(int sq, int[][] directions, long mask, long magic) {
+		int bits = Long.bitCount(mask);
+		long[] table = new long[1 << bits];
+
+		long subset = 0L;
+		do {
+			table[(int) ((subset * magic) >>> (64 - bits))] = slidingAttacks(sq, subset, directions);
+			subset = (subset - mask) & mask;
+		} while (subset != 0);
+
+		return table;
+	}
+}
@@ -0,0 +1,101 @@
+package chess.bitboard;
+
+/*
+ * The Bitboard class gathers the constants and small static helpers shared by the
+ * 64-bit representation of the board
+ * 
+ * Every square of the 8 x 8 board is mapped to one bit of a long, following the
+ * same orientation of the board matrix, so the square index is row * 8 + column:
+ * 
+ * 8  0  1  2  3  4  5  6  7
+ * 7  8  9 10 11 12 13 14 15
+ * 6 16 17 18 19 20 21 22 23
+ * 5 24 25 26 27 28 29 30 31
+ * 4 32 33 34 35 36 37 38 39
+ * 3 40 41 42 43 44 45 46 47
+ * 2 48 49 50 51 52 53 54 55
+ * 1 56 57 58 59 60 61 62 63
+ *    a  b  c  d  e  f  g  h
+ * 
+ * That way a Position(row, column) of the board layer converts to a square without
+ * any table, and a set of squares is a single long where each bit on says that the
+ * square belongs to the set
+*/
+public final class Bitboard {
+
+	// Piece types, used as indexes of the piece bitboards
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int BISHOP = 2;
+	public static final int ROOK = 3;
+	public static final int QUEEN = 4;
+	public static final int KING = 5;
+
+	// Colors follow the ordinal of the chess.Color enum
+	public static final int BLACK = 0;
+	public static final int WHITE = 1;
+
+	public static final int EMPTY = -1;
+
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_H = FILE_A << 7;
+	public static final long RANK_8 = 0xFFL;
+	public static final long RANK_1 = RANK_8 << 56;
+
+	private Bitboard() {
+
+	}
+
+	public static int square(int row, int column) {
+		return (row << 3) | column;
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	/*
+	 * A piece code joins the color and the type of a piece in a single number from
+	 * 0 to 11, which is the index of its bitboard within the BitboardPosition
+	*/
+	public static int pieceCode(int color, int type) {
+		return color * 6 + type;
+	}
+
+	public static int colorOf(int pieceCode) {
+		return pieceCode / 6;
+	}
+
+	public static int typeOf(int pieceCode) {
+		return pieceCode % 6;
+	}
+
+	public static int opponent(int color) {
+		return color ^ 1;
+	}
+
+	/*
+	 * Auxiliary method to print a bitboard with the same layout of the UI, useful
+	 * while debugging the move generation
+	*/
+	public static String toString(long bitboard) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			sb.append(8 - i).append(' ');
+			for (int j = 0; j < 8; j++) {
+				sb.append((bitboard & bit(square(i, j))) != 0 ? "1 " : "- ");
+			}
+			sb.append('\n');
+		}
+		sb.append("  a b c d e f g h");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,532 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.BISHOP;
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.KING;
+import static chess.bitboard.Bitboard.KNIGHT;
+import static chess.bitboard.Bitboard.PAWN;
+import static chess.bitboard.Bitboard.QUEEN;
+import static chess.bitboard.Bitboard.ROOK;
+import static chess.bitboard.Bitboard.WHITE;
+import static chess.bitboard.Bitboard.bit;
+import static chess.bitboard.Bitboard.colorOf;
+import static chess.bitboard.Bitboard.pieceCode;
+import static chess.bitboard.Bitboard.typeOf;
+
+import java.util.Arrays;
+
+/*
+ * The BitboardPosition is the compact representation of the pieces on the board,
+ * instead of a matrix of objects we keep one long for each combination of color and
+ * piece type (12 bitboards), one long for each color and one long for the whole
+ * occupancy of the board
+ * 
+ * Along with the bitboards we keep a mailbox (an array of 64 bytes with the piece
+ * code of each square) so that the question "which piece is on this square?" is
+ * answered without going through the 12 bitboards
+ * 
+ * The position also keeps the attacked squares of each color, to answer if a
+ * square (the King's, for instance) is under attack with a single lookup. Each
+ * piece has its own set of attacked squares (attacksFrom), and each color counts
+ * its attackers of every square, so when a piece is added or removed only that
+ * piece and the sliding pieces whose rays reach the changed square are
+ * recomputed, and only the squares that enter or leave their sets change the
+ * counts and the attacked squares of the color. The sliders are found from the
+ * changed square, as the attackersTo() does, not by going through the pieces
+ * 
+ * Every change also updates the Zobrist key of the position, which identifies
+ * the pieces, the side to move, the castling rights and the en passant square
+*/
+public class BitboardPosition {
+
+	// Castling rights, one bit for each side of each color
+	public static final int WHITE_KING_SIDE = 1;
+	public static final int WHITE_QUEEN_SIDE = 2;
+	public static final int BLACK_KING_SIDE = 4;
+	public static final int BLACK_QUEEN_SIDE = 8;
+
+	private final long[] pieces = new long[12];
+	private final long[] colors = new long[2];
+	private long occupied;
+	private final byte[] mailbox = new byte[64];
+	
+	private final long[] attacksFrom = new long[64];
+	private final long[] attacks = new long[2];
+	// Number of pieces of the color that attack each square, at color * 64 + square
+	private final byte[] attackCounts = new byte[128];
+	
+	private final int[] kingSquares = { EMPTY, EMPTY };
+	
+	/*
+	 * Besides the pieces, the move generation needs to know whose turn it is, which
+	 * castlings are still allowed and the square behind a pawn that has just moved
+	 * two squares (the target of an en passant capture), or EMPTY
+	*/
+	private int sideToMove = WHITE;
+	private int castlingRights;
+	private int enPassantSquare = EMPTY;
+	
+	private long key = Zobrist.castling(0);
+	
+	//Zobrist key of the pawns alone, for the tables of pawn structure scores
+	private long pawnKey;
+	
+	/*
+	 * Material and piece-square scores (White minus Black) of the middle game and of
+	 * the end game, and the phase, kept up to date as the pieces are placed and
+	 * removed, so the evaluation doesn't need to go through the pieces
+	*/
+	private int middleGameScore;
+	private int endGameScore;
+	private int phase;
+	
+	/*
+	 * Each move made by makeMove() leaves a record of what the move can't tell by
+	 * itself: the captured piece, the castling rights and the en passant square
+	 * before the move, so that unmakeMove() restores them
+	 * 
+	 * The history grows as needed, a copy starts with a short one, as most copies
+	 * are made to play a few moves or none at all
+	*/
+	private static final int HISTORY_SIZE = 256;
+	private static final int COPY_HISTORY_SIZE = 16;
+	private int[] history;
+	private int ply;
+	
+	/*
+	 * Castling rights kept by a move from or to each square, a move that touches the
+	 * initial square of a King or of a Rook loses the corresponding rights
+	*/
+	private static final int[] CASTLING_MASK = new int[64];
+	
+	static {
+		Arrays.fill(CASTLING_MASK, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+		CASTLING_MASK[Bitboard.square(0, 0)] &= ~BLACK_QUEEN_SIDE;
+		CASTLING_MASK[Bitboard.square(0, 4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+		CASTLING_MASK[Bitboard.square(0, 7)] &= ~BLACK_KING_SIDE;
+		CASTLING_MASK[Bitboard.square(7, 0)] &= ~WHITE_QUEEN_SIDE;
+		CASTLING_MASK[Bitboard.square(7, 4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+		CASTLING_MASK[Bitboard.square(7, 7)] &= ~WHITE_KING_SIDE;
+	}
+
+	public BitboardPosition() {
+		Arrays.fill(mailbox, (byte) EMPTY);
+		history = new int[HISTORY_SIZE];
+	}
+	
+	/*
+	 * The copy constructor copies the arrays of the other position as they are, so
+	 * that the copy is independent and can make and unmake its own moves
+	*/
+	public BitboardPosition(BitboardPosition other) {
+		history = new int[Math.max(COPY_HISTORY_SIZE, other.ply)];
+		copyFrom(other);
+	}
+	
+	public void copyFrom(BitboardPosition other) {
+		System.arraycopy(other.pieces, 0, pieces, 0, 12);
+		System.arraycopy(other.colors, 0, colors, 0, 2);
+		occupied = other.occupied;
+		System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+		System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, 64);
+		System.arraycopy(other.attacks, 0, attacks, 0, 2);
+		System.arraycopy(other.attackCounts, 0, attackCounts, 0, 128);
+		System.arraycopy(other.kingSquares, 0, kingSquares, 0, 2);
+		sideToMove = other.sideToMove;
+		castlingRights = other.castlingRights;
+		enPassantSquare = other.enPassantSquare;
+		key = other.key;
+		pawnKey = other.pawnKey;
+		middleGameScore = other.middleGameScore;
+		endGameScore = other.endGameScore;
+		phase = other.phase;
+		if (history.length < other.ply) {
+			history = new int[other.history.length];
+		}
+		System.arraycopy(other.history, 0, history, 0, other.ply);
+		ply = other.ply;
+	}
+
+	public long getPieces(int color, int type) {
+		return pieces[pieceCode(color, type)];
+	}
+
+	public long getPieces(int pieceCode) {
+		return pieces[pieceCode];
+	}
+
+	public long getColorOccupancy(int color) {
+		return colors[color];
+	}
+
+	public long getOccupied() {
+		return occupied;
+	}
+
+	public int getSideToMove() {
+		return sideToMove;
+	}
+	
+	public void setSideToMove(int sideToMove) {
+		key ^= Zobrist.sideToMove(this.sideToMove) ^ Zobrist.sideToMove(sideToMove);
+		this.sideToMove = sideToMove;
+	}
+	
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+	
+	public void setCastlingRights(int castlingRights) {
+		key ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+		this.castlingRights = castlingRights;
+	}
+	
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+	
+	public void setEnPassantSquare(int enPassantSquare) {
+		key ^= Zobrist.enPassant(this.enPassantSquare) ^ Zobrist.enPassant(enPassantSquare);
+		this.enPassantSquare = enPassantSquare;
+	}
+	
+	public long getKey() {
+		return key;
+	}
+	
+	public long getPawnKey() {
+		return pawnKey;
+	}
+	
+	public int getMiddleGameScore() {
+		return middleGameScore;
+	}
+	
+	public int getEndGameScore() {
+		return endGameScore;
+	}
+	
+	public int getPhase() {
+		return phase;
+	}
+	
+	/*
+	 * Returns the piece code of the square, or EMPTY if there is no piece on it
+	*/
+	public int pieceAt(int square) {
+		return mailbox[square];
+	}
+
+	/*
+	 * The square of the King is tracked as it's added and removed, so finding the
+	 * King of a color doesn't need any search, it returns EMPTY if there is no King
+	 * of that color on the board
+	*/
+	public int getKingSquare(int color) {
+		return kingSquares[color];
+	}
+	
+	public boolean isEmpty(int square) {
+		return (occupied & bit(square)) == 0;
+	}
+	
+	/*
+	 * Squares attacked by the pieces of the color, including the squares of its own
+	 * pieces that are defended
+	*/
+	public long getAttacks(int color) {
+		return attacks[color];
+	}
+	
+	public boolean isAttacked(int square, int byColor) {
+		return (getAttacks(byColor) & bit(square)) != 0;
+	}
+	
+	public long getAttacksFrom(int square) {
+		return attacksFrom[square];
+	}
+	
+	/*
+	 * Pieces of both colors that attack the square, considering the given occupancy
+	 * for the sliding pieces, which allows asking "what if these squares were
+	 * empty?" without changing the position
+	*/
+	public long attackersTo(int square, long occupied) {
+		long queens = pieces[pieceCode(WHITE, QUEEN)] | pieces[pieceCode(BLACK, QUEEN)];
+		long bishops = pieces[pieceCode(WHITE, BISHOP)] | pieces[pieceCode(BLACK, BISHOP)] | queens;
+		long rooks = pieces[pieceCode(WHITE, ROOK)] | pieces[pieceCode(BLACK, ROOK)] | queens;
+		return (Attacks.pawn(WHITE, square) & pieces[pieceCode(BLACK, PAWN)])
+				| (Attacks.pawn(BLACK, square) & pieces[pieceCode(WHITE, PAWN)])
+				| (Attacks.knight(square) & (pieces[pieceCode(WHITE, KNIGHT)] | pieces[pieceCode(BLACK, KNIGHT)]))
+				| (Attacks.king(square) & (pieces[pieceCode(WHITE, KING)] | pieces[pieceCode(BLACK, KING)]))
+				| (Attacks.bishop(square, occupied) & bishops)
+				| (Attacks.rook(square, occupied) & rooks);
+	}
+	
+	public boolean isInCheck(int color) {
+		int king = kingSquares[color];
+		return king != EMPTY && (attacks[Bitboard.opponent(color)] & bit(king)) != 0;
+	}
+
+	/*
+	 * The addPiece() and removePiece() methods are the only ones allowed to change
+	 * the bitboards, that way the 12 piece bitboards, the color occupancies and the
+	 * mailbox are always kept in agreement
+	*/
+	public void addPiece(int color, int type, int square) {
+		putPiece(color, type, square);
+
+		updateSliders(square);
+		setAttacksFrom(square, color, pieceAttacks(pieceCode(color, type), square));
+	}
+
+	/*
+	 * The putPiece() places a piece without updating the attacks, it is used to load
+	 * a whole position at once (as the Fen does), which must call refreshAttacks()
+	 * after the last piece, instead of updating the sliders for every piece
+	*/
+	void putPiece(int color, int type, int square) {
+		long b = bit(square);
+		if ((occupied & b) != 0) {
+			throw new IllegalStateException("There is already a piece on square " + square);
+		}
+
+		int code = pieceCode(color, type);
+		pieces[code] |= b;
+		colors[color] |= b;
+		occupied |= b;
+		mailbox[square] = (byte) code;
+		key ^= Zobrist.piece(code, square);
+		middleGameScore += PieceSquareTables.middleGame(code, square);
+		endGameScore += PieceSquareTables.endGame(code, square);
+		phase += PieceSquareTables.phase(type);
+		if (type == PAWN) {
+			pawnKey ^= Zobrist.piece(code, square);
+		}
+		if (type == KING) {
+			kingSquares[color] = square;
+		}
+	}
+
+	void refreshAttacks() {
+		Arrays.fill(attacksFrom, 0L);
+		Arrays.fill(attacks, 0L);
+		Arrays.fill(attackCounts, (byte) 0);
+		long pieces = occupied;
+		while (pieces != 0) {
+			int square = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			setAttacksFrom(square, colorOf(mailbox[square]), pieceAttacks(mailbox[square], square));
+		}
+	}
+
+	public int removePiece(int square) {
+		int code = mailbox[square];
+		if (code == EMPTY) {
+			return EMPTY;
+		}
+
+		long b = bit(square);
+		pieces[code] &= ~b;
+		colors[colorOf(code)] &= ~b;
+		occupied &= ~b;
+		mailbox[square] = (byte) EMPTY;
+		key ^= Zobrist.piece(code, square);
+		middleGameScore -= PieceSquareTables.middleGame(code, square);
+		endGameScore -= PieceSquareTables.endGame(code, square);
+		phase -= PieceSquareTables.phase(typeOf(code));
+		if (typeOf(code) == PAWN) {
+			pawnKey ^= Zobrist.piece(code, square);
+		}
+		if (typeOf(code) == KING && kingSquares[colorOf(code)] == square) {
+			kingSquares[colorOf(code)] = EMPTY;
+		}
+		
+		setAttacksFrom(square, colorOf(code), 0L);
+		updateSliders(square);
+		return code;
+	}
+	
+	/*
+	 * The attacks of the sliding pieces are the only ones that depend on the other
+	 * pieces, and only the sliders whose attack sets contain the changed square can
+	 * have their rays extended or shortened by the change. A slider reaches the
+	 * square exactly when the ray of its kind from the square reaches the slider,
+	 * so they are found with two lookups of the attack tables
+	*/
+	private void updateSliders(int square) {
+		long queens = pieces[pieceCode(WHITE, QUEEN)] | pieces[pieceCode(BLACK, QUEEN)];
+		long bishops = pieces[pieceCode(WHITE, BISHOP)] | pieces[pieceCode(BLACK, BISHOP)] | queens;
+		long rooks = pieces[pieceCode(WHITE, ROOK)] | pieces[pieceCode(BLACK, ROOK)] | queens;
+		long sliders = (Attacks.bishop(square, occupied) & bishops) | (Attacks.rook(square, occupied) & rooks);
+		while (sliders != 0) {
+			int sq = Long.numberOfTrailingZeros(sliders);
+			sliders &= sliders - 1;
+			int code = mailbox[sq];
+			setAttacksFrom(sq, colorOf(code), pieceAttacks(code, sq));
+		}
+	}
+	
+	/*
+	 * Replaces the attacks of the piece on the square, only the squares that leave
+	 * or enter its set change the counts of the color, and a square is attacked by
+	 * the color while its count is above zero
+	*/
+	private void setAttacksFrom(int square, int color, long newAttacks) {
+		long oldAttacks = attacksFrom[square];
+		attacksFrom[square] = newAttacks;
+		int base = color << 6;
+
+		long removed = oldAttacks & ~newAttacks;
+		while (removed != 0) {
+			int sq = Long.numberOfTrailingZeros(removed);
+			removed &= removed - 1;
+			if (--attackCounts[base + sq] == 0) {
+				attacks[color] &= ~bit(sq);
+			}
+		}
+		long added = newAttacks & ~oldAttacks;
+		while (added != 0) {
+			int sq = Long.numberOfTrailingZeros(added);
+			added &= added - 1;
+			if (attackCounts[base + sq]++ == 0) {
+				attacks[color] |= bit(sq);
+			}
+		}
+	}
+	
+	private long pieceAttacks(int code, int square) {
+		switch (typeOf(code)) {
+		case PAWN:
+			return Attacks.pawn(colorOf(code), square);
+		case KNIGHT:
+			return Attacks.knight(square);
+		case BISHOP:
+			return Attacks.bishop(square, occupied);
+		case ROOK:
+			return Attacks.rook(square, occupied);
+		case QUEEN:
+			return Attacks.queen(square, occupied);
+		case KING:
+			return Attacks.king(square);
+		default:
+			return 0L;
+		}
+	}
+
+	/*
+	 * The makeMove() plays a legal move given by the MoveGenerator, including the
+	 * special moves, which are recognized from the pieces involved:
+	 * 
+	 * #Special Move - Castling		the King moves two columns, the Rook jumps over it
+	 * #Special Move - En Passant	a pawn moves to the en passant square
+	 * #Special Move - Promotion	the move carries the type of the new piece
+	*/
+	public void makeMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int code = mailbox[from];
+		int us = colorOf(code);
+		int type = typeOf(code);
+
+		int capturedSquare = to;
+		boolean enPassant = type == PAWN && to == enPassantSquare;
+		if (enPassant) {
+			capturedSquare = to + ((us == WHITE) ? 8 : -8);
+		}
+
+		if (ply == history.length) {
+			history = Arrays.copyOf(history, ply * 2);
+		}
+		int captured = mailbox[capturedSquare];
+		history[ply++] = (captured & 0xF) | (castlingRights << 4) | ((enPassantSquare & 0x7F) << 8) | (enPassant ? 1 << 15 : 0);
+
+		if (captured != EMPTY) {
+			removePiece(capturedSquare);
+		}
+		removePiece(from);
+		int promotion = Move.promotion(move);
+		addPiece(us, (promotion != 0) ? promotion : type, to);
+
+		if (type == KING && to == from + 2) {
+			removePiece(from + 3);
+			addPiece(us, ROOK, from + 1);
+		} else if (type == KING && to == from - 2) {
+			removePiece(from - 4);
+			addPiece(us, ROOK, from - 1);
+		}
+
+		setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+
+		int newEnPassant = EMPTY;
+		if (type == PAWN && (to == from + 16 || to == from - 16)) {
+			int jumped = (from + to) >>> 1;
+			if ((Attacks.pawn(us, jumped) & pieces[pieceCode(Bitboard.opponent(us), PAWN)]) != 0) {
+				newEnPassant = jumped;
+			}
+		}
+		setEnPassantSquare(newEnPassant);
+		setSideToMove(Bitboard.opponent(us));
+	}
+
+	/*
+	 * Undoes the last move made by the makeMove(), which must be the given move
+	*/
+	public void unmakeMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int record = history[--ply];
+		int us = Bitboard.opponent(sideToMove);
+
+		setSideToMove(us);
+		setCastlingRights((record >>> 4) & 0xF);
+		int previousEnPassant = (record >>> 8) & 0x7F;
+		setEnPassantSquare(previousEnPassant == 0x7F ? EMPTY : previousEnPassant);
+
+		int type = (Move.promotion(move) != 0) ? PAWN : typeOf(mailbox[to]);
+		removePiece(to);
+		addPiece(us, type, from);
+
+		if (type == KING && to == from + 2) {
+			removePiece(from + 1);
+			addPiece(us, ROOK, from + 3);
+		} else if (type == KING && to == from - 2) {
+			removePiece(from - 1);
+			addPiece(us, ROOK, from - 4);
+		}
+
+		int captured = record & 0xF;
+		if (captured != 0xF) {
+			int capturedSquare = ((record & (1 << 15)) != 0) ? to + ((us == WHITE) ? 8 : -8) : to;
+			addPiece(colorOf(captured), typeOf(captured), capturedSquare);
+		}
+	}
+	
+	/*
+	 * Number of moves made by the makeMove() that can still be undone
+	*/
+	public int getPly() {
+		return ply;
+	}
+
+	public void clear() {
+		Arrays.fill(pieces, 0L);
+		Arrays.fill(colors, 0L);
+		occupied = 0L;
+		Arrays.fill(mailbox, (byte) EMPTY);
+		Arrays.fill(attacksFrom, 0L);
+		Arrays.fill(attacks, 0L);
+		Arrays.fill(attackCounts, (byte) 0);
+		Arrays.fill(kingSquares, EMPTY);
+		sideToMove = WHITE;
+		castlingRights = 0;
+		enPassantSquare = EMPTY;
+		key = Zobrist.castling(0);
+		pawnKey = 0L;
+		middleGameScore = 0;
+		endGameScore = 0;
+		phase = 0;
+		ply = 0;
+	}
+}
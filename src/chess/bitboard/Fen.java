@@ -0,0 +1,282 @@
+package chess.bitboard;
+
+import java.util.Arrays;
+
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.KING;
+import static chess.bitboard.Bitboard.PAWN;
+import static chess.bitboard.Bitboard.ROOK;
+import static chess.bitboard.Bitboard.WHITE;
+
+/*
+ * Forsyth-Edwards Notation (FEN) describes a position in a single line of text, for
+ * example the initial position:
+ *
+ * rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
+ *
+ * The ranks are given from the 8th to the 1st, white pieces in upper case and black
+ * pieces in lower case, followed by the side to move, the castling rights and the
+ * en passant square. The move counters at the end are optional, the half move clock
+ * is ignored and the full move number is read by the fullMoveNumber()
+ *
+ * The parsing goes through the CharSequence char by char, without any regex or
+ * substring, so loading many positions in the same BitboardPosition doesn't
+ * allocate anything
+*/
+public final class Fen {
+
+	public static final String INITIAL_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private static final String PIECE_LETTERS = "pnbrqk";
+
+	// Piece code of each letter, EMPTY for the chars that aren't pieces
+	private static final byte[] PIECE_CODES = new byte[128];
+
+	static {
+		Arrays.fill(PIECE_CODES, (byte) EMPTY);
+		for (int type = PAWN; type <= KING; type++) {
+			PIECE_CODES[Character.toUpperCase(PIECE_LETTERS.charAt(type))] = (byte) Bitboard.pieceCode(WHITE, type);
+			PIECE_CODES[PIECE_LETTERS.charAt(type)] = (byte) Bitboard.pieceCode(BLACK, type);
+		}
+	}
+
+	private Fen() {
+
+	}
+
+	/*
+	 * Reads the FEN into the given position, which is cleared first
+	*/
+	public static void parse(CharSequence fen, BitboardPosition position) {
+		position.clear();
+		int i = 0;
+		int length = fen.length();
+
+		int row = 0;
+		int column = 0;
+		for (; i < length && fen.charAt(i) != ' '; i++) {
+			char c = fen.charAt(i);
+			if (c == '/') {
+				if (column != 8) {
+					throw new IllegalArgumentException("Invalid FEN, rank " + (8 - row) + " is incomplete: " + fen);
+				}
+				row++;
+				column = 0;
+			} else if (c >= '1' && c <= '8') {
+				column += c - '0';
+			} else {
+				int code = (c < PIECE_CODES.length) ? PIECE_CODES[c] : EMPTY;
+				if (code == EMPTY || row > 7 || column > 7) {
+					throw new IllegalArgumentException("Invalid FEN board: " + fen);
+				}
+				position.putPiece(Bitboard.colorOf(code), Bitboard.typeOf(code), Bitboard.square(row, column));
+				column++;
+			}
+		}
+		if (row != 7 || column != 8) {
+			throw new IllegalArgumentException("Invalid FEN board: " + fen);
+		}
+		position.refreshAttacks();
+
+		i++;
+		if (i >= length || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) {
+			throw new IllegalArgumentException("Invalid FEN side to move: " + fen);
+		}
+		int side = (fen.charAt(i) == 'w') ? WHITE : BLACK;
+		position.setSideToMove(side);
+		i += 2;
+
+		int rights = 0;
+		for (; i < length && fen.charAt(i) != ' '; i++) {
+			switch (fen.charAt(i)) {
+			case 'K':
+				rights |= BitboardPosition.WHITE_KING_SIDE;
+				break;
+			case 'Q':
+				rights |= BitboardPosition.WHITE_QUEEN_SIDE;
+				break;
+			case 'k':
+				rights |= BitboardPosition.BLACK_KING_SIDE;
+				break;
+			case 'q':
+				rights |= BitboardPosition.BLACK_QUEEN_SIDE;
+				break;
+			case '-':
+				break;
+			default:
+				throw new IllegalArgumentException("Invalid FEN castling rights: " + fen);
+			}
+		}
+		position.setCastlingRights(possibleCastlingRights(position, rights));
+
+		i++;
+		if (i < length && fen.charAt(i) != '-') {
+			if (i + 1 >= length) {
+				throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+			}
+			int epColumn = fen.charAt(i) - 'a';
+			int epRow = '8' - fen.charAt(i + 1);
+			if (epColumn < 0 || epColumn > 7 || epRow < 0 || epRow > 7) {
+				throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+			}
+			int square = Bitboard.square(epRow, epColumn);
+			if (possibleEnPassant(position, side, square)) {
+				position.setEnPassantSquare(square);
+			}
+		}
+		if (position.getKingSquare(WHITE) == EMPTY || position.getKingSquare(BLACK) == EMPTY) {
+			throw new IllegalArgumentException("Invalid FEN, both Kings must be on the board: " + fen);
+		}
+	}
+
+	/*
+	 * A castling right is only kept when the King and the Rook are on their initial
+	 * squares, as the ChessMatch derives them from the pieces that never moved, so
+	 * both give the same position (and key) for the same FEN
+	*/
+	private static int possibleCastlingRights(BitboardPosition position, int rights) {
+		if (position.pieceAt(60) != Bitboard.pieceCode(WHITE, KING)) {
+			rights &= ~(BitboardPosition.WHITE_KING_SIDE | BitboardPosition.WHITE_QUEEN_SIDE);
+		}
+		if (position.pieceAt(63) != Bitboard.pieceCode(WHITE, ROOK)) {
+			rights &= ~BitboardPosition.WHITE_KING_SIDE;
+		}
+		if (position.pieceAt(56) != Bitboard.pieceCode(WHITE, ROOK)) {
+			rights &= ~BitboardPosition.WHITE_QUEEN_SIDE;
+		}
+		if (position.pieceAt(4) != Bitboard.pieceCode(BLACK, KING)) {
+			rights &= ~(BitboardPosition.BLACK_KING_SIDE | BitboardPosition.BLACK_QUEEN_SIDE);
+		}
+		if (position.pieceAt(7) != Bitboard.pieceCode(BLACK, ROOK)) {
+			rights &= ~BitboardPosition.BLACK_KING_SIDE;
+		}
+		if (position.pieceAt(0) != Bitboard.pieceCode(BLACK, ROOK)) {
+			rights &= ~BitboardPosition.BLACK_QUEEN_SIDE;
+		}
+		return rights;
+	}
+
+	/*
+	 * The en passant square is only kept when it is right behind an opponent pawn
+	 * that has just moved two rows (on the 6th rank when White moves, on the 3rd
+	 * when Black moves) and a pawn of the side to move can really capture it, as
+	 * the BitboardPosition does after a move and the ChessMatch does with the pawn
+	 * in front of the square
+	*/
+	private static boolean possibleEnPassant(BitboardPosition position, int side, int square) {
+		int opponent = Bitboard.opponent(side);
+		int row = (side == WHITE) ? 2 : 5;
+		if (Bitboard.row(square) != row || position.pieceAt(square) != EMPTY) {
+			return false;
+		}
+		int pawn = (side == WHITE) ? square + 8 : square - 8;
+		if (position.pieceAt(pawn) != Bitboard.pieceCode(opponent, PAWN)) {
+			return false;
+		}
+		return (Attacks.pawn(opponent, square) & position.getPieces(side, PAWN)) != 0;
+	}
+
+	public static BitboardPosition parse(CharSequence fen) {
+		BitboardPosition position = new BitboardPosition();
+		parse(fen, position);
+		return position;
+	}
+
+	/*
+	 * The full move number, the last field of the FEN, it starts at 1 and is
+	 * incremented after each move of Black. It is 1 if the FEN doesn't have it
+	*/
+	public static int fullMoveNumber(CharSequence fen) {
+		int length = fen.length();
+		int i = 0;
+		// Skips the five fields before it
+		for (int field = 0; field < 5; field++) {
+			while (i < length && fen.charAt(i) != ' ') {
+				i++;
+			}
+			while (i < length && fen.charAt(i) == ' ') {
+				i++;
+			}
+		}
+		if (i == length) {
+			return 1;
+		}
+
+		int number = 0;
+		for (; i < length && fen.charAt(i) != ' '; i++) {
+			char c = fen.charAt(i);
+			if (c < '0' || c > '9' || number > 100000) {
+				throw new IllegalArgumentException("Invalid FEN full move number: " + fen);
+			}
+			number = number * 10 + (c - '0');
+		}
+		if (number < 1) {
+			throw new IllegalArgumentException("Invalid FEN full move number: " + fen);
+		}
+		return number;
+	}
+
+	/*
+	 * Writes the position as a FEN, the en passant square is only written when a
+	 * capture is possible, as it is kept by the BitboardPosition
+	*/
+	public static String toFen(BitboardPosition position, int halfMoveClock, int fullMoveNumber) {
+		StringBuilder sb = new StringBuilder(90);
+		append(sb, position, halfMoveClock, fullMoveNumber);
+		return sb.toString();
+	}
+
+	public static void append(StringBuilder sb, BitboardPosition position, int halfMoveClock, int fullMoveNumber) {
+		for (int row = 0; row < 8; row++) {
+			int empty = 0;
+			for (int column = 0; column < 8; column++) {
+				int code = position.pieceAt(Bitboard.square(row, column));
+				if (code == EMPTY) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append((char) ('0' + empty));
+					empty = 0;
+				}
+				char letter = PIECE_LETTERS.charAt(Bitboard.typeOf(code));
+				sb.append((Bitboard.colorOf(code) == WHITE) ? Character.toUpperCase(letter) : letter);
+			}
+			if (empty > 0) {
+				sb.append((char) ('0' + empty));
+			}
+			if (row < 7) {
+				sb.append('/');
+			}
+		}
+
+		sb.append((position.getSideToMove() == WHITE) ? " w " : " b ");
+
+		int rights = position.getCastlingRights();
+		if (rights == 0) {
+			sb.append('-');
+		} else {
+			if ((rights & BitboardPosition.WHITE_KING_SIDE) != 0) {
+				sb.append('K');
+			}
+			if ((rights & BitboardPosition.WHITE_QUEEN_SIDE) != 0) {
+				sb.append('Q');
+			}
+			if ((rights & BitboardPosition.BLACK_KING_SIDE) != 0) {
+				sb.append('k');
+			}
+			if ((rights & BitboardPosition.BLACK_QUEEN_SIDE) != 0) {
+				sb.append('q');
+			}
+		}
+
+		int enPassantSquare = position.getEnPassantSquare();
+		if (enPassantSquare == EMPTY) {
+			sb.append(" - ");
+		} else {
+			sb.append(' ').append((char) ('a' + Bitboard.column(enPassantSquare))).append((char) ('8' - Bitboard.row(enPassantSquare))).append(' ');
+		}
+		sb.append(halfMoveClock).append(' ').append(fullMoveNumber);
+	}
+}
@@ -0,0 +1,152 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.KING;
+import static chess.bitboard.Bitboard.KNIGHT;
+import static chess.bitboard.Bitboard.PAWN;
+
+/*
+ * A move is packed in 16 bits, so that lists of moves can be written in primitive
+ * buffers (or stored in a short) without creating any object:
+ *
+ * bits 0 to 5		- source square
+ * bits 6 to 11		- target square
+ * bits 12 to 15	- flags, the kind of move:
+ *
+ * 0	QUIET				a move to an empty square
+ * 1	DOUBLE_PAWN_PUSH	a pawn moving two squares from its initial row
+ * 2	KING_CASTLE			#Special Move - Castling on the King side
+ * 3	QUEEN_CASTLE		#Special Move - Castling on the Queen side
+ * 4	CAPTURE				a move to a square taken by an opponent piece
+ * 5	EN_PASSANT			#Special Move - En Passant
+ * 8	PROMOTION			#Special Move - Promotion, the 2 lowest bits are the new
+ * 						piece (Knight, Bishop, Rook, Queen) and the CAPTURE bit
+ * 						is set if the pawn captures
+ *
+ * The moves are kept in an int, the 16 upper bits are always 0
+*/
+public final class Move {
+
+	public static final int QUIET = 0;
+	public static final int DOUBLE_PAWN_PUSH = 1;
+	public static final int KING_CASTLE = 2;
+	public static final int QUEEN_CASTLE = 3;
+	public static final int CAPTURE = 4;
+	public static final int EN_PASSANT = 5;
+	public static final int PROMOTION = 8;
+
+	private Move() {
+
+	}
+
+	public static int of(int from, int to) {
+		return from | (to << 6);
+	}
+
+	public static int of(int from, int to, int flags) {
+		return from | (to << 6) | (flags << 12);
+	}
+
+	public static int ofPromotion(int from, int to, int type, boolean capture) {
+		return of(from, to, PROMOTION | (capture ? CAPTURE : 0) | (type - KNIGHT));
+	}
+
+	/*
+	 * The move from the source to the target square in the given position, with the
+	 * flags that the pieces on the board tell, the promotion type is ignored if the
+	 * move isn't a promotion. The move is not tested to be legal
+	*/
+	public static int of(BitboardPosition position, int from, int to, int promotion) {
+		int code = position.pieceAt(from);
+		int type = (code == EMPTY) ? EMPTY : Bitboard.typeOf(code);
+		boolean capture = position.pieceAt(to) != EMPTY;
+		if (type == PAWN) {
+			if (Bitboard.row(to) == 0 || Bitboard.row(to) == 7) {
+				return ofPromotion(from, to, (promotion >= KNIGHT && promotion < KING) ? promotion : Bitboard.QUEEN, capture);
+			}
+			if (to == position.getEnPassantSquare() && Bitboard.column(from) != Bitboard.column(to)) {
+				return of(from, to, EN_PASSANT);
+			}
+			if (to == from + 16 || to == from - 16) {
+				return of(from, to, DOUBLE_PAWN_PUSH);
+			}
+		}
+		if (type == KING && to == from + 2) {
+			return of(from, to, KING_CASTLE);
+		}
+		if (type == KING && to == from - 2) {
+			return of(from, to, QUEEN_CASTLE);
+		}
+		return of(from, to, capture ? CAPTURE : QUIET);
+	}
+
+	public static int from(int move) {
+		return move & 0x3F;
+	}
+
+	public static int to(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	public static int flags(int move) {
+		return (move >>> 12) & 0xF;
+	}
+
+	/*
+	 * Piece type of a promotion (KNIGHT to QUEEN), or 0 if there is none
+	*/
+	public static int promotion(int move) {
+		int flags = flags(move);
+		return ((flags & PROMOTION) != 0) ? KNIGHT + (flags & 3) : 0;
+	}
+
+	public static boolean isCapture(int move) {
+		// The CAPTURE bit is also part of the EN_PASSANT flags
+		return (flags(move) & CAPTURE) != 0;
+	}
+
+	public static boolean isEnPassant(int move) {
+		return flags(move) == EN_PASSANT;
+	}
+
+	public static boolean isCastling(int move) {
+		int flags = flags(move);
+		return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+	}
+
+	/*
+	 * Source, target and promotion, without the flags, two moves with the same
+	 * squares and promotion are the same move of a position
+	*/
+	public static int squaresAndPromotion(int move) {
+		int promotion = promotion(move);
+		return (move & 0xFFF) | (promotion << 12);
+	}
+
+	public static short toShort(int move) {
+		return (short) move;
+	}
+
+	public static int fromShort(short move) {
+		return move & 0xFFFF;
+	}
+
+	/*
+	 * Long algebraic notation of the move, as used by the perft divide output, for
+	 * example "e2e4" or "e7e8q"
+	*/
+	public static String toString(int move) {
+		StringBuilder sb = new StringBuilder(5);
+		appendSquare(sb, from(move));
+		appendSquare(sb, to(move));
+		if (promotion(move) != 0) {
+			sb.append("pnbrqk".charAt(promotion(move)));
+		}
+		return sb.toString();
+	}
+
+	private static void appendSquare(StringBuilder sb, int square) {
+		sb.append((char) ('a' + Bitboard.column(square)));
+		sb.append((char) ('8' - Bitboard.row(square)));
+	}
+}
@@ -0,0 +1,301 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.BISHOP;
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.KING;
+import static chess.bitboard.Bitboard.KNIGHT;
+import static chess.bitboard.Bitboard.PAWN;
+import static chess.bitboard.Bitboard.QUEEN;
+import static chess.bitboard.Bitboard.RANK_1;
+import static chess.bitboard.Bitboard.RANK_8;
+import static chess.bitboard.Bitboard.ROOK;
+import static chess.bitboard.Bitboard.WHITE;
+import static chess.bitboard.Bitboard.bit;
+import static chess.bitboard.Bitboard.opponent;
+
+/*
+ * The MoveGenerator writes all legal moves of the side to move of a position in a
+ * buffer of ints, without making any move to find out if it leaves the King in
+ * check
+ * 
+ * For that, before generating the moves of the pieces it computes:
+ * 
+ * checkers 	- the opponent pieces giving check, with two of them only the King
+ * 				can move
+ * 
+ * checkMask 	- with one checker, the other pieces can only capture it or block
+ * 				the squares between it and the King
+ * 
+ * danger 		- the squares attacked by the opponent with our King removed from
+ * 				the board, so the King can't step back along the ray of a slider
+ * 
+ * pinned 		- our pieces that are the only piece between the King and an
+ * 				opponent slider, which can only move along that line
+ * 
+ * The en passant capture is the only move that removes two pieces of the same row,
+ * so it's tested by looking at the King's attackers with the new occupancy
+*/
+public final class MoveGenerator {
+
+	// No legal chess position has more than 218 moves
+	public static final int MAX_MOVES = 256;
+
+	private static final int[] PROMOTIONS = { QUEEN, ROOK, BISHOP, KNIGHT };
+
+	// A move from a8 to a8 is impossible, so it can mean no move
+	public static final int NO_MOVE = 0;
+
+	private MoveGenerator() {
+
+	}
+
+	public static int generateLegalMoves(BitboardPosition position, int[] moves) {
+		int us = position.getSideToMove();
+		int them = opponent(us);
+		int king = position.getKingSquare(us);
+		if (king == EMPTY) {
+			return 0;
+		}
+
+		long own = position.getColorOccupancy(us);
+		long enemy = position.getColorOccupancy(them);
+		long occupied = position.getOccupied();
+		int count = 0;
+
+		long checkers = position.attackersTo(king, occupied) & enemy;
+		long danger = attackedSquares(position, them, occupied & ~bit(king));
+
+		count = addMoves(moves, count, king, Attacks.king(king) & ~own & ~danger, position.getColorOccupancy(opponent(us)));
+
+		// With a double check only the King can move
+		if (Long.bitCount(checkers) > 1) {
+			return count;
+		}
+
+		long checkMask = ~0L;
+		if (checkers != 0) {
+			checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+		}
+
+		long pinned = pinnedPieces(position, us, king);
+
+		// A pinned Knight can never stay on the line of the pin
+		long knights = position.getPieces(us, KNIGHT) & ~pinned;
+		while (knights != 0) {
+			int from = Long.numberOfTrailingZeros(knights);
+			knights &= knights - 1;
+			count = addMoves(moves, count, from, Attacks.knight(from) & ~own & checkMask, position.getColorOccupancy(opponent(us)));
+		}
+
+		long sliders = position.getPieces(us, BISHOP) | position.getPieces(us, ROOK) | position.getPieces(us, QUEEN);
+		while (sliders != 0) {
+			int from = Long.numberOfTrailingZeros(sliders);
+			sliders &= sliders - 1;
+
+			long targets;
+			switch (Bitboard.typeOf(position.pieceAt(from))) {
+			case BISHOP:
+				targets = Attacks.bishop(from, occupied);
+				break;
+			case ROOK:
+				targets = Attacks.rook(from, occupied);
+				break;
+			default:
+				targets = Attacks.queen(from, occupied);
+			}
+
+			targets &= ~own & checkMask;
+			if ((pinned & bit(from)) != 0) {
+				targets &= Attacks.line(king, from);
+			}
+			count = addMoves(moves, count, from, targets, position.getColorOccupancy(opponent(us)));
+		}
+
+		count = generatePawnMoves(position, moves, count, us, king, checkMask, pinned);
+
+		if (checkers == 0) {
+			count = generateCastlings(position, moves, count, us, danger);
+		}
+
+		return count;
+	}
+
+	/*
+	 * Auxiliary method to know if a move (source and target squares) is among the
+	 * legal moves of the position, any promotion piece is accepted
+	*/
+	public static boolean isLegal(BitboardPosition position, int from, int to, int[] buffer) {
+		return findLegalMove(position, from, to, QUEEN, buffer) != NO_MOVE;
+	}
+
+	/*
+	 * Finds the legal move with the source and target squares, with all its flags,
+	 * or NO_MOVE if there is none. The promotion type chooses among the promotions,
+	 * it's ignored for the other moves
+	*/
+	public static int findLegalMove(BitboardPosition position, int from, int to, int promotion, int[] buffer) {
+		int count = generateLegalMoves(position, buffer);
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			if (Move.from(move) == from && Move.to(move) == to
+					&& (Move.promotion(move) == 0 || Move.promotion(move) == promotion)) {
+				return move;
+			}
+		}
+		return NO_MOVE;
+	}
+
+	private static int addMoves(int[] moves, int count, int from, long targets, long enemy) {
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			moves[count++] = Move.of(from, to, ((enemy & bit(to)) != 0) ? Move.CAPTURE : Move.QUIET);
+		}
+		return count;
+	}
+
+	private static int generatePawnMoves(BitboardPosition position, int[] moves, int count, int us, int king, long checkMask, long pinned) {
+		int them = opponent(us);
+		long enemy = position.getColorOccupancy(them);
+		long occupied = position.getOccupied();
+		int forward = (us == WHITE) ? -8 : 8;
+		// The row where the pawns start (so they can move two squares) and the row
+		// where they are promoted
+		long startRow = (us == WHITE) ? RANK_1 >>> 8 : RANK_8 << 8;
+		long promotionRow = (us == WHITE) ? RANK_8 : RANK_1;
+		int enPassant = position.getEnPassantSquare();
+
+		long pawns = position.getPieces(us, PAWN);
+		while (pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+
+			long targets = 0L;
+			int to = from + forward;
+			if (to >= 0 && to < 64 && (occupied & bit(to)) == 0) {
+				targets |= bit(to);
+				if ((bit(from) & startRow) != 0 && (occupied & bit(to + forward)) == 0) {
+					targets |= bit(to + forward);
+				}
+			}
+			targets |= Attacks.pawn(us, from) & enemy;
+
+			targets &= checkMask;
+			if ((pinned & bit(from)) != 0) {
+				targets &= Attacks.line(king, from);
+			}
+
+			while (targets != 0) {
+				to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				boolean capture = (enemy & bit(to)) != 0;
+				if ((bit(to) & promotionRow) != 0) {
+					for (int promotion : PROMOTIONS) {
+						moves[count++] = Move.ofPromotion(from, to, promotion, capture);
+					}
+				} else if (capture) {
+					moves[count++] = Move.of(from, to, Move.CAPTURE);
+				} else {
+					moves[count++] = Move.of(from, to, (to == from + 2 * forward) ? Move.DOUBLE_PAWN_PUSH : Move.QUIET);
+				}
+			}
+
+			//#Special Move - En Passant
+			if (enPassant != EMPTY && (Attacks.pawn(us, from) & bit(enPassant)) != 0) {
+				int captured = enPassant - forward;
+				long after = (occupied & ~bit(from) & ~bit(captured)) | bit(enPassant);
+				if ((position.attackersTo(king, after) & enemy & ~bit(captured)) == 0) {
+					moves[count++] = Move.of(from, enPassant, Move.EN_PASSANT);
+				}
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * The castling is only allowed when the King isn't in check, the squares between
+	 * the King and the Rook are empty and the King doesn't pass through or land on
+	 * an attacked square
+	 *
+	 * The King and the Rook are also tested on their initial squares, the castling
+	 * rights given to a position may not match its pieces
+	*/
+	private static int generateCastlings(BitboardPosition position, int[] moves, int count, int us, long danger) {
+		int king = (us == WHITE) ? 60 : 4;
+		if (position.getKingSquare(us) != king) {
+			return count;
+		}
+		int rights = position.getCastlingRights();
+		long occupied = position.getOccupied();
+		long rooks = position.getPieces(us, ROOK);
+		int kingSide = (us == WHITE) ? BitboardPosition.WHITE_KING_SIDE : BitboardPosition.BLACK_KING_SIDE;
+		int queenSide = (us == WHITE) ? BitboardPosition.WHITE_QUEEN_SIDE : BitboardPosition.BLACK_QUEEN_SIDE;
+
+		if ((rights & kingSide) != 0 && (rooks & bit(king + 3)) != 0
+				&& (occupied & (bit(king + 1) | bit(king + 2))) == 0
+				&& (danger & (bit(king + 1) | bit(king + 2))) == 0) {
+			moves[count++] = Move.of(king, king + 2, Move.KING_CASTLE);
+		}
+
+		if ((rights & queenSide) != 0 && (rooks & bit(king - 4)) != 0
+				&& (occupied & (bit(king - 1) | bit(king - 2) | bit(king - 3))) == 0
+				&& (danger & (bit(king - 1) | bit(king - 2))) == 0) {
+			moves[count++] = Move.of(king, king - 2, Move.QUEEN_CASTLE);
+		}
+		return count;
+	}
+
+	/*
+	 * Our pieces that stand alone between the King and an opponent Rook, Bishop or
+	 * Queen aligned with it
+	*/
+	private static long pinnedPieces(BitboardPosition position, int us, int king) {
+		int them = opponent(us);
+		long occupied = position.getOccupied();
+		long queens = position.getPieces(them, QUEEN);
+		long snipers = (Attacks.rook(king, 0L) & (position.getPieces(them, ROOK) | queens))
+				| (Attacks.bishop(king, 0L) & (position.getPieces(them, BISHOP) | queens));
+
+		long pinned = 0L;
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = Attacks.between(king, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1) {
+				pinned |= blockers & position.getColorOccupancy(us);
+			}
+		}
+		return pinned;
+	}
+
+	private static long attackedSquares(BitboardPosition position, int color, long occupied) {
+		long result = 0L;
+		long own = position.getColorOccupancy(color);
+		while (own != 0) {
+			int sq = Long.numberOfTrailingZeros(own);
+			own &= own - 1;
+			switch (Bitboard.typeOf(position.pieceAt(sq))) {
+			case PAWN:
+				result |= Attacks.pawn(color, sq);
+				break;
+			case KNIGHT:
+				result |= Attacks.knight(sq);
+				break;
+			case BISHOP:
+				result |= Attacks.bishop(sq, occupied);
+				break;
+			case ROOK:
+				result |= Attacks.rook(sq, occupied);
+				break;
+			case QUEEN:
+				result |= Attacks.queen(sq, occupied);
+				break;
+			case KING:
+				result |= Attacks.king(sq);
+				break;
+			default:
+			}
+		}
+		return result;
+	}
+}
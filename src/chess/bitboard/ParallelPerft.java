@@ -0,0 +1,104 @@
+package chess.bitboard;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Perft splitted across the threads of a ForkJoinPool
+ *
+ * Each move of the upper levels of the tree becomes a task with its own copy of the
+ * position (copy-make), so the tasks share nothing and run on any thread. When the
+ * remaining depth reaches the sequential depth, the task walks its subtree with a
+ * sequential Perft, which makes and unmakes the moves on its copy
+ *
+ * The results are joined in the order the moves were generated, so the divide is
+ * always printed in the same order, whatever thread finished first
+*/
+public class ParallelPerft {
+
+	/*
+	 * Subtrees of this depth or less are not splitted, they are too small to pay for
+	 * the copies and the tasks
+	*/
+	public static final int SEQUENTIAL_DEPTH = 3;
+
+	private final ForkJoinPool pool;
+
+	public ParallelPerft() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public ParallelPerft(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public long perft(BitboardPosition position, int depth) {
+		return pool.invoke(new PerftTask(new BitboardPosition(position), depth));
+	}
+
+	public Map<String, Long> divide(BitboardPosition position, int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Invalid depth for divide: " + depth);
+		}
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateLegalMoves(position, moves);
+		List<PerftTask> tasks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			tasks.add(childTask(position, moves[i], depth - 1));
+		}
+		for (PerftTask task : tasks) {
+			pool.execute(task);
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			result.put(Move.toString(moves[i]), tasks.get(i).join());
+		}
+		return result;
+	}
+
+	private static PerftTask childTask(BitboardPosition position, int move, int depth) {
+		BitboardPosition child = new BitboardPosition(position);
+		child.makeMove(move);
+		return new PerftTask(child, depth);
+	}
+
+	private static class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BitboardPosition position;
+		private final int depth;
+
+		PerftTask(BitboardPosition position, int depth) {
+			this.position = position;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			if (depth <= SEQUENTIAL_DEPTH) {
+				return new Perft(position, depth).perft(depth);
+			}
+			int[] moves = new int[MoveGenerator.MAX_MOVES];
+			int count = MoveGenerator.generateLegalMoves(position, moves);
+			List<PerftTask> tasks = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				tasks.add(childTask(position, moves[i], depth - 1));
+			}
+			long nodes = 0;
+			for (PerftTask task : ForkJoinTask.invokeAll(tasks)) {
+				nodes += task.join();
+			}
+			return nodes;
+		}
+	}
+}
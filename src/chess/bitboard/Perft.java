@@ -0,0 +1,72 @@
+package chess.bitboard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Perft (performance test) walks the tree of legal moves up to a given depth and
+ * counts the leaf nodes. The counts of the standard reference positions are well
+ * known, so any difference points to a bug in the move generation (castling, en
+ * passant, promotions, pins...), and the time it takes measures its speed
+ *
+ * The walk is made over a copy of the position with makeMove() and unmakeMove(),
+ * with one move buffer per depth, so that nothing is allocated inside the tree
+*/
+public class Perft {
+
+	private final BitboardPosition position;
+	private final int[][] moves;
+
+	public Perft(BitboardPosition position, int maxDepth) {
+		this.position = new BitboardPosition(position);
+		moves = new int[Math.max(maxDepth, 1)][MoveGenerator.MAX_MOVES];
+	}
+
+	public static long perft(BitboardPosition position, int depth) {
+		return new Perft(position, depth).perft(depth);
+	}
+
+	public long perft(int depth) {
+		if (depth > moves.length) {
+			throw new IllegalArgumentException("Depth " + depth + " is greater than the maximum depth " + moves.length);
+		}
+		return (depth == 0) ? 1L : count(depth);
+	}
+
+	/*
+	 * The divide gives the count of each legal move of the root position, the move
+	 * that has a different count from a reference engine leads to the bug
+	*/
+	public Map<String, Long> divide(int depth) {
+		if (depth < 1 || depth > moves.length) {
+			throw new IllegalArgumentException("Invalid depth for divide: " + depth);
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		int[] buffer = moves[depth - 1];
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			position.makeMove(move);
+			result.put(Move.toString(move), (depth == 1) ? 1L : count(depth - 1));
+			position.unmakeMove(move);
+		}
+		return result;
+	}
+
+	private long count(int depth) {
+		int[] buffer = moves[depth - 1];
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+		// the moves are legal, so at the last depth they only need to be counted
+		if (depth == 1) {
+			return count;
+		}
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			position.makeMove(move);
+			nodes += count(depth - 1);
+			position.unmakeMove(move);
+		}
+		return nodes;
+	}
+}
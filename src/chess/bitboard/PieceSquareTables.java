@@ -0,0 +1,145 @@
+package chess.bitboard;
+
+/*
+ * Piece-square tables give each piece a value that depends on its square, already
+ * added to the material value of the piece: a Knight in the center is worth more
+ * than a Knight on the edge, a Pawn about to promote more than one on its initial
+ * row, and so on
+ *
+ * There is a table for the middle game and another for the end game, a position is
+ * scored between the two by its phase: the phase is the sum of the weights of the
+ * Knights, Bishops, Rooks and Queens on the board, from MAX_PHASE in the initial
+ * position to 0 when only Kings and Pawns are left
+ *
+ * As the Zobrist key, the BitboardPosition adds and subtracts the values of the
+ * tables when the pieces are placed and removed. The values of the black pieces
+ * are negative, so the sum is the score of White minus the score of Black
+ *
+ * The tables are written from the White point of view, with the 8th rank first, so
+ * the index is the square of a white piece, a black piece uses the mirrored square
+*/
+public final class PieceSquareTables {
+
+	public static final int MAX_PHASE = 24;
+
+	// Indexed by the piece type constants
+	private static final int[] PHASE = { 0, 1, 1, 2, 4, 0 };
+	private static final int[] MIDDLE_GAME_VALUES = { 100, 320, 330, 500, 900, 0 };
+	private static final int[] END_GAME_VALUES = { 120, 300, 320, 530, 950, 0 };
+
+	private static final int[] PAWN = {
+			 0,   0,   0,   0,   0,   0,   0,   0,
+			50,  50,  50,  50,  50,  50,  50,  50,
+			10,  10,  20,  30,  30,  20,  10,  10,
+			 5,   5,  10,  25,  25,  10,   5,   5,
+			 0,   0,   0,  20,  20,   0,   0,   0,
+			 5,  -5, -10,   0,   0, -10,  -5,   5,
+			 5,  10,  10, -20, -20,  10,  10,   5,
+			 0,   0,   0,   0,   0,   0,   0,   0 };
+
+	private static final int[] KNIGHT = {
+			-50, -40, -30, -30, -30, -30, -40, -50,
+			-40, -20,   0,   0,   0,   0, -20, -40,
+			-30,   0,  10,  15,  15,  10,   0, -30,
+			-30,   5,  15,  20,  20,  15,   5, -30,
+			-30,   0,  15,  20,  20,  15,   0, -30,
+			-30,   5,  10,  15,  15,  10,   5, -30,
+			-40, -20,   0,   5,   5,   0, -20, -40,
+			-50, -40, -30, -30, -30, -30, -40, -50 };
+
+	private static final int[] BISHOP = {
+			-20, -10, -10, -10, -10, -10, -10, -20,
+			-10,   0,   0,   0,   0,   0,   0, -10,
+			-10,   0,   5,  10,  10,   5,   0, -10,
+			-10,   5,   5,  10,  10,   5,   5, -10,
+			-10,   0,  10,  10,  10,  10,   0, -10,
+			-10,  10,  10,  10,  10,  10,  10, -10,
+			-10,   5,   0,   0,   0,   0,   5, -10,
+			-20, -10, -10, -10, -10, -10, -10, -20 };
+
+	private static final int[] ROOK = {
+			 0,   0,   0,   0,   0,   0,   0,   0,
+			 5,  10,  10,  10,  10,  10,  10,   5,
+			-5,   0,   0,   0,   0,   0,   0,  -5,
+			-5,   0,   0,   0,   0,   0,   0,  -5,
+			-5,   0,   0,   0,   0,   0,   0,  -5,
+			-5,   0,   0,   0,   0,   0,   0,  -5,
+			-5,   0,   0,   0,   0,   0,   0,  -5,
+			 0,   0,   0,   5,   5,   0,   0,   0 };
+
+	private static final int[] QUEEN = {
+			-20, -10, -10,  -5,  -5, -10, -10, -20,
+			-10,   0,   0,   0,   0,   0,   0, -10,
+			-10,   0,   5,   5,   5,   5,   0, -10,
+			 -5,   0,   5,   5,   5,   5,   0,  -5,
+			  0,   0,   5,   5,   5,   5,   0,  -5,
+			-10,   5,   5,   5,   5,   5,   0, -10,
+			-10,   0,   5,   0,   0,   0,   0, -10,
+			-20, -10, -10,  -5,  -5, -10, -10, -20 };
+
+	// In the middle game the King hides behind its pawns
+	private static final int[] KING_MIDDLE_GAME = {
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-20, -30, -30, -40, -40, -30, -30, -20,
+			-10, -20, -20, -20, -20, -20, -20, -10,
+			 20,  20,   0,   0,   0,   0,  20,  20,
+			 20,  30,  10,   0,   0,  10,  30,  20 };
+
+	// In the end game the King goes to the center
+	private static final int[] KING_END_GAME = {
+			-50, -40, -30, -20, -20, -30, -40, -50,
+			-30, -20, -10,   0,   0, -10, -20, -30,
+			-30, -10,  20,  30,  30,  20, -10, -30,
+			-30, -10,  30,  40,  40,  30, -10, -30,
+			-30, -10,  30,  40,  40,  30, -10, -30,
+			-30, -10,  20,  30,  30,  20, -10, -30,
+			-30, -30,   0,   0,   0,   0, -30, -30,
+			-50, -30, -30, -30, -30, -30, -30, -50 };
+
+	private static final int[][] MIDDLE_GAME = new int[12][64];
+	private static final int[][] END_GAME = new int[12][64];
+
+	static {
+		int[][] middleGameTables = { PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING_MIDDLE_GAME };
+		int[][] endGameTables = { PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING_END_GAME };
+		for (int type = Bitboard.PAWN; type <= Bitboard.KING; type++) {
+			for (int sq = 0; sq < 64; sq++) {
+				int white = Bitboard.pieceCode(Bitboard.WHITE, type);
+				int black = Bitboard.pieceCode(Bitboard.BLACK, type);
+				// The mirrored square (sq ^ 56) is the same column on the opposite row
+				MIDDLE_GAME[white][sq] = MIDDLE_GAME_VALUES[type] + middleGameTables[type][sq];
+				MIDDLE_GAME[black][sq] = -(MIDDLE_GAME_VALUES[type] + middleGameTables[type][sq ^ 56]);
+				END_GAME[white][sq] = END_GAME_VALUES[type] + endGameTables[type][sq];
+				END_GAME[black][sq] = -(END_GAME_VALUES[type] + endGameTables[type][sq ^ 56]);
+			}
+		}
+	}
+
+	private PieceSquareTables() {
+
+	}
+
+	public static int middleGame(int pieceCode, int square) {
+		return MIDDLE_GAME[pieceCode][square];
+	}
+
+	public static int endGame(int pieceCode, int square) {
+		return END_GAME[pieceCode][square];
+	}
+
+	public static int phase(int type) {
+		return PHASE[type];
+	}
+
+	/*
+	 * Score between the middle game and the end game scores, in proportion to the
+	 * phase
+	*/
+	public static int taper(int middleGame, int endGame, int phase) {
+		int p = Math.min(phase, MAX_PHASE);
+		return (middleGame * p + endGame * (MAX_PHASE - p)) / MAX_PHASE;
+	}
+}
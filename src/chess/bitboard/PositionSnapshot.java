@@ -0,0 +1,159 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.WHITE;
+
+/*
+ * Immutable and compact copy of a position, that can be shared between threads
+ * without any lock: all the fields are final, so a thread that receives the
+ * snapshot always sees it complete
+ *
+ * The pieces are kept in a quad-bitboard: the 64 squares have a 4 bits code (0 for
+ * an empty square, or the piece code + 1) and the bit n of the code of every square
+ * is stored in the plane n, so the whole board takes four longs
+ *
+ * The rest of the position takes a few bytes: the side to move, the castling rights,
+ * the en passant square and the turn of the match, the Zobrist key comes along so
+ * that snapshots can be compared and stored in hash tables without computing it
+*/
+public final class PositionSnapshot {
+
+	private final long plane0;
+	private final long plane1;
+	private final long plane2;
+	private final long plane3;
+	private final long key;
+	private final int turn;
+	private final byte sideToMove;
+	private final byte castlingRights;
+	private final byte enPassantSquare;
+
+	private PositionSnapshot(long plane0, long plane1, long plane2, long plane3, long key, int turn, int sideToMove,
+			int castlingRights, int enPassantSquare) {
+		this.plane0 = plane0;
+		this.plane1 = plane1;
+		this.plane2 = plane2;
+		this.plane3 = plane3;
+		this.key = key;
+		this.turn = turn;
+		this.sideToMove = (byte) sideToMove;
+		this.castlingRights = (byte) castlingRights;
+		this.enPassantSquare = (byte) enPassantSquare;
+	}
+
+	/*
+	 * The planes are built from the 12 bitboards of pieces, each bitboard goes to
+	 * the planes of the bits set in its code
+	*/
+	public static PositionSnapshot of(BitboardPosition position, int turn) {
+		long plane0 = 0, plane1 = 0, plane2 = 0, plane3 = 0;
+		for (int code = 0; code < 12; code++) {
+			long pieces = position.getPieces(code);
+			int nibble = code + 1;
+			if ((nibble & 1) != 0) plane0 |= pieces;
+			if ((nibble & 2) != 0) plane1 |= pieces;
+			if ((nibble & 4) != 0) plane2 |= pieces;
+			if ((nibble & 8) != 0) plane3 |= pieces;
+		}
+		return new PositionSnapshot(plane0, plane1, plane2, plane3, position.getKey(), turn,
+				position.getSideToMove(), position.getCastlingRights(), position.getEnPassantSquare());
+	}
+
+	/*
+	 * Puts the snapshot back in the given position, which is cleared first
+	*/
+	public void restore(BitboardPosition position) {
+		position.clear();
+		long occupied = getOccupied();
+		while (occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			int code = pieceAt(square);
+			position.addPiece(Bitboard.colorOf(code), Bitboard.typeOf(code), square);
+		}
+		position.setSideToMove(sideToMove);
+		position.setCastlingRights(castlingRights);
+		position.setEnPassantSquare(enPassantSquare);
+	}
+
+	public BitboardPosition toBitboardPosition() {
+		BitboardPosition position = new BitboardPosition();
+		restore(position);
+		return position;
+	}
+
+	public long getOccupied() {
+		return plane0 | plane1 | plane2 | plane3;
+	}
+
+	/*
+	 * Piece code on the square, or EMPTY
+	*/
+	public int pieceAt(int square) {
+		int nibble = (int) ((plane0 >>> square) & 1) | (int) (((plane1 >>> square) & 1) << 1)
+				| (int) (((plane2 >>> square) & 1) << 2) | (int) (((plane3 >>> square) & 1) << 3);
+		return nibble - 1;
+	}
+
+	public long getKey() {
+		return key;
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public int getSideToMove() {
+		return sideToMove;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	/*
+	 * Two snapshots are equal when they have the same position, the turn of the
+	 * match is not considered, as the same position can happen in different turns
+	*/
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PositionSnapshot)) {
+			return false;
+		}
+		PositionSnapshot other = (PositionSnapshot) obj;
+		return plane0 == other.plane0 && plane1 == other.plane1 && plane2 == other.plane2 && plane3 == other.plane3
+				&& sideToMove == other.sideToMove && castlingRights == other.castlingRights
+				&& enPassantSquare == other.enPassantSquare;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (key ^ (key >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int row = 0; row < 8; row++) {
+			for (int column = 0; column < 8; column++) {
+				int code = pieceAt(Bitboard.square(row, column));
+				sb.append(code == EMPTY ? '-' : symbol(code));
+			}
+			sb.append('\n');
+		}
+		sb.append(sideToMove == WHITE ? "WHITE" : "BLACK").append(" to move, turn ").append(turn);
+		return sb.toString();
+	}
+
+	private static char symbol(int code) {
+		char c = "PNBRQK".charAt(Bitboard.typeOf(code));
+		return Bitboard.colorOf(code) == WHITE ? c : Character.toLowerCase(c);
+	}
+}
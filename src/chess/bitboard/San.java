@@ -0,0 +1,223 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.KING;
+import static chess.bitboard.Bitboard.PAWN;
+import static chess.bitboard.Bitboard.QUEEN;
+
+/*
+ * Standard Algebraic Notation (SAN) is the notation of the moves in the PGN files,
+ * it tells the piece and the target square, and only as much of the source square
+ * as needed to tell two pieces apart:
+ *
+ * e4, exd5, e8=Q		- Pawn moves, a capture starts with the column of the Pawn
+ * Nf3, Nbd7, R1e2		- piece moves, with the column and/or row of the source
+ * Bxf7+, Qh5#			- captures, checks and mates
+ * O-O, O-O-O			- #Special Move - Castling
+ *
+ * A SAN move only makes sense in a position, the decode() finds the one legal
+ * move of the position that it describes. It reads the chars between the given
+ * indexes of a CharSequence, so the moves of a game can be kept in a single
+ * buffer and decoded without creating any String
+*/
+public final class San {
+
+	private static final String PIECE_LETTERS = "PNBRQK";
+
+	private San() {
+
+	}
+
+	/*
+	 * Returns the legal move described by the SAN, or NO_MOVE if there is none or if
+	 * the SAN fits more than one legal move. The buffer receives the legal moves of
+	 * the position, it must have room for MAX_MOVES
+	*/
+	public static int decode(BitboardPosition position, CharSequence san, int start, int end, int[] buffer) {
+		// The check, mate and annotation marks at the end don't identify the move
+		while (end > start && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+			end--;
+		}
+		if (end - start < 2) {
+			return MoveGenerator.NO_MOVE;
+		}
+
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+
+		//#Special Move - Castling, written with the letter O or with zeros
+		char first = san.charAt(start);
+		if (first == 'O' || first == '0') {
+			int flags = isCastling(san, start, end, first, 5) ? Move.QUEEN_CASTLE
+					: isCastling(san, start, end, first, 3) ? Move.KING_CASTLE : EMPTY;
+			for (int i = 0; i < count; i++) {
+				if (Move.flags(buffer[i]) == flags) {
+					return buffer[i];
+				}
+			}
+			return MoveGenerator.NO_MOVE;
+		}
+
+		//#Special Move - Promotion, the new piece after the target square
+		int promotion = 0;
+		int type = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+		if (type > PAWN && type < KING) {
+			promotion = type;
+			end--;
+			if (san.charAt(end - 1) == '=') {
+				end--;
+			}
+		}
+		if (end - start < 2) {
+			return MoveGenerator.NO_MOVE;
+		}
+
+		int to = square(san.charAt(end - 2), san.charAt(end - 1));
+		if (to == EMPTY) {
+			return MoveGenerator.NO_MOVE;
+		}
+		end -= 2;
+
+		int piece = PAWN;
+		if (Character.isUpperCase(first)) {
+			piece = PIECE_LETTERS.indexOf(first);
+			if (piece < 0) {
+				return MoveGenerator.NO_MOVE;
+			}
+			start++;
+		}
+
+		// What is left is the column and/or the row of the source, and the capture
+		int fromColumn = EMPTY;
+		int fromRow = EMPTY;
+		for (int i = start; i < end; i++) {
+			char c = san.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				fromRow = '8' - c;
+			} else if (c != 'x' && c != ':' && c != '-') {
+				return MoveGenerator.NO_MOVE;
+			}
+		}
+
+		int found = MoveGenerator.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			int from = Move.from(move);
+			if (Move.to(move) != to || Bitboard.typeOf(position.pieceAt(from)) != piece || Move.isCastling(move)) {
+				continue;
+			}
+			if ((fromColumn != EMPTY && Bitboard.column(from) != fromColumn) || (fromRow != EMPTY && Bitboard.row(from) != fromRow)) {
+				continue;
+			}
+			// A promotion without the piece is to a Queen
+			int movePromotion = Move.promotion(move);
+			if (movePromotion != 0 && movePromotion != ((promotion != 0) ? promotion : QUEEN)) {
+				continue;
+			}
+			if (movePromotion == 0 && promotion != 0) {
+				continue;
+			}
+			if (found != MoveGenerator.NO_MOVE) {
+				return MoveGenerator.NO_MOVE;
+			}
+			found = move;
+		}
+		return found;
+	}
+
+	public static int decode(BitboardPosition position, CharSequence san, int[] buffer) {
+		return decode(position, san, 0, san.length(), buffer);
+	}
+
+	/*
+	 * The SAN of a legal move of the position, with the check or mate mark. The
+	 * position is the same after the call, the move is made and unmade to find the
+	 * mark
+	*/
+	public static String toSan(BitboardPosition position, int move, int[] buffer) {
+		StringBuilder sb = new StringBuilder(8);
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int piece = Bitboard.typeOf(position.pieceAt(from));
+
+		if (Move.isCastling(move)) {
+			sb.append((Move.flags(move) == Move.KING_CASTLE) ? "O-O" : "O-O-O");
+		} else if (piece == PAWN) {
+			if (Move.isCapture(move)) {
+				sb.append((char) ('a' + Bitboard.column(from))).append('x');
+			}
+			appendSquare(sb, to);
+			if (Move.promotion(move) != 0) {
+				sb.append('=').append(PIECE_LETTERS.charAt(Move.promotion(move)));
+			}
+		} else {
+			sb.append(PIECE_LETTERS.charAt(piece));
+			appendDisambiguation(sb, position, move, piece, buffer);
+			if (Move.isCapture(move)) {
+				sb.append('x');
+			}
+			appendSquare(sb, to);
+		}
+
+		int us = position.getSideToMove();
+		position.makeMove(move);
+		if (position.isInCheck(Bitboard.opponent(us))) {
+			sb.append((MoveGenerator.generateLegalMoves(position, buffer) == 0) ? '#' : '+');
+		}
+		position.unmakeMove(move);
+		return sb.toString();
+	}
+
+	/*
+	 * The column of the source is preferred, the row is used when the other pieces
+	 * are on the same column, and both when neither is enough
+	*/
+	private static void appendDisambiguation(StringBuilder sb, BitboardPosition position, int move, int piece, int[] buffer) {
+		int from = Move.from(move);
+		boolean ambiguous = false;
+		boolean sameColumn = false;
+		boolean sameRow = false;
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+		for (int i = 0; i < count; i++) {
+			int other = Move.from(buffer[i]);
+			if (other != from && Move.to(buffer[i]) == Move.to(move) && Bitboard.typeOf(position.pieceAt(other)) == piece) {
+				ambiguous = true;
+				sameColumn |= Bitboard.column(other) == Bitboard.column(from);
+				sameRow |= Bitboard.row(other) == Bitboard.row(from);
+			}
+		}
+		if (ambiguous && (!sameColumn || sameRow)) {
+			sb.append((char) ('a' + Bitboard.column(from)));
+		}
+		if (ambiguous && sameColumn) {
+			sb.append((char) ('8' - Bitboard.row(from)));
+		}
+	}
+
+	private static void appendSquare(StringBuilder sb, int square) {
+		sb.append((char) ('a' + Bitboard.column(square)));
+		sb.append((char) ('8' - Bitboard.row(square)));
+	}
+
+	private static int square(char column, char row) {
+		if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+			return EMPTY;
+		}
+		return Bitboard.square('8' - row, column - 'a');
+	}
+
+	// O-O has 3 chars and O-O-O has 5, with the same letter and dashes between them
+	private static boolean isCastling(CharSequence san, int start, int end, char letter, int length) {
+		if (end - start != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			char expected = (i % 2 == 0) ? letter : '-';
+			if (san.charAt(start + i) != expected) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
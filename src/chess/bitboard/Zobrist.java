@@ -0,0 +1,79 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.EMPTY;
+
+import java.util.SplittableRandom;
+
+/*
+ * Zobrist hashing gives each position a 64-bit key: a random number is assigned to
+ * every piece on every square, to the side to move, to each combination of castling
+ * rights and to each column of an en passant square, and the key of a position is
+ * the XOR of the numbers of everything that is present on it
+ * 
+ * As the XOR undoes itself, moving a piece only needs the number of its old square
+ * and of its new square to be XOR'ed on the key, so the BitboardPosition keeps its
+ * key up to date without going through the whole board
+ * 
+ * The numbers are generated with a fixed seed, so the same position always has
+ * the same key, even between different executions of the application
+*/
+public final class Zobrist {
+
+	private static final long[][] PIECES = new long[12][64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT = new long[8];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5EED_C4E5_5B0A_7DL);
+		for (int code = 0; code < 12; code++) {
+			for (int sq = 0; sq < 64; sq++) {
+				PIECES[code][sq] = random.nextLong();
+			}
+		}
+		for (int i = 0; i < 16; i++) {
+			CASTLING[i] = random.nextLong();
+		}
+		for (int i = 0; i < 8; i++) {
+			EN_PASSANT[i] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+
+	}
+
+	public static long piece(int pieceCode, int square) {
+		return PIECES[pieceCode][square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long enPassant(int square) {
+		return square == EMPTY ? 0L : EN_PASSANT[Bitboard.column(square)];
+	}
+
+	public static long sideToMove(int color) {
+		return color == BLACK ? BLACK_TO_MOVE : 0L;
+	}
+
+	/*
+	 * Computes the key of a position from scratch, the incremental key kept by the
+	 * BitboardPosition must always be equal to it
+	*/
+	public static long compute(BitboardPosition position) {
+		long key = 0L;
+		for (int sq = 0; sq < 64; sq++) {
+			int code = position.pieceAt(sq);
+			if (code != EMPTY) {
+				key ^= piece(code, sq);
+			}
+		}
+		return key ^ sideToMove(position.getSideToMove()) ^ castling(position.getCastlingRights())
+				^ enPassant(position.getEnPassantSquare());
+	}
+}
@@ -0,0 +1,74 @@
+package chess.engine;
+
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.KNIGHT;
+import static chess.bitboard.Bitboard.PAWN;
+import static chess.bitboard.Bitboard.QUEEN;
+import static chess.bitboard.Bitboard.WHITE;
+
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.PieceSquareTables;
+
+/*
+ * Static evaluation of a position, in centipawns (a pawn is worth 100) and from the
+ * point of view of the side to move, as the negamax search expects: a positive
+ * score is good for the player who moves now
+ *
+ * The evaluation is the sum of:
+ *
+ * material and piece-square tables	- kept up to date by the BitboardPosition as
+ * 									the pieces move, blended by the game phase
+ * mobility							- squares attacked by the Knights, Bishops, Rooks
+ * 									and Queens that are not taken by pieces of the
+ * 									same color, also kept by the BitboardPosition
+ * pawn structure					- doubled, isolated and passed pawns, taken from
+ * 									a PawnHashTable when one is given
+*/
+public final class Evaluation {
+
+	// Indexed by the piece type constants, the King has no material value
+	public static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+	// Value of each square a piece can move to, also by piece type
+	private static final int[] MOBILITY_WEIGHTS = { 0, 4, 3, 2, 1, 0 };
+
+	private Evaluation() {
+
+	}
+
+	public static int evaluate(BitboardPosition position) {
+		return evaluate(position, null);
+	}
+
+	public static int evaluate(BitboardPosition position, PawnHashTable pawnHashTable) {
+		int score = PieceSquareTables.taper(position.getMiddleGameScore(), position.getEndGameScore(), position.getPhase());
+		score += mobility(position, WHITE) - mobility(position, BLACK);
+		long whitePawns = position.getPieces(WHITE, PAWN);
+		long blackPawns = position.getPieces(BLACK, PAWN);
+		score += (pawnHashTable != null) ? pawnHashTable.evaluate(position.getPawnKey(), whitePawns, blackPawns)
+				: PawnStructure.evaluate(whitePawns, blackPawns);
+		return (position.getSideToMove() == WHITE) ? score : -score;
+	}
+
+	public static int material(BitboardPosition position, int color) {
+		int material = 0;
+		for (int type = PAWN; type <= QUEEN; type++) {
+			material += Long.bitCount(position.getPieces(color, type)) * PIECE_VALUES[type];
+		}
+		return material;
+	}
+
+	private static int mobility(BitboardPosition position, int color) {
+		long own = position.getColorOccupancy(color);
+		int mobility = 0;
+		for (int type = KNIGHT; type <= QUEEN; type++) {
+			long pieces = position.getPieces(color, type);
+			while (pieces != 0) {
+				int sq = Long.numberOfTrailingZeros(pieces);
+				pieces &= pieces - 1;
+				mobility += Long.bitCount(position.getAttacksFrom(sq) & ~own) * MOBILITY_WEIGHTS[type];
+			}
+		}
+		return mobility;
+	}
+}
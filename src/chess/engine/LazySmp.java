@@ -0,0 +1,176 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chess.ChessMatch;
+import chess.bitboard.BitboardPosition;
+
+/*
+ * Lazy SMP runs the same search in N threads, that only share the transposition
+ * table: each thread has its own Search, with its own copy of the position, killer
+ * moves and history, and the results a thread stores in the table make the other
+ * threads skip or reorder the moves, so together they search deeper than one alone
+ *
+ * The thread 0 is the main one, it searches with the given limits and its result is
+ * the answer, unless a helper completed a deeper iteration. The helpers start at
+ * depth 1 or 2, alternately, and are stopped as soon as the main thread finishes
+*/
+public class LazySmp implements AutoCloseable {
+
+	private final Search[] searches;
+	private final TranspositionTable transpositionTable;
+	private final ExecutorService executor;
+	private final AtomicBoolean stop = new AtomicBoolean();
+	private SearchResult[] threadResults = new SearchResult[0];
+
+	public LazySmp(int threads, int tableSizeInMegabytes) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Lazy SMP needs at least one thread");
+		}
+		transpositionTable = new TranspositionTable(tableSizeInMegabytes);
+		searches = new Search[threads];
+		BitboardPosition empty = new BitboardPosition();
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(empty, transpositionTable);
+			searches[i].setSharedStop(stop);
+		}
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "lazy-smp-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public int getThreads() {
+		return searches.length;
+	}
+
+	public TranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	/*
+	 * Results of each thread in the last search, with their nodes per second
+	*/
+	public SearchResult[] getThreadResults() {
+		return threadResults.clone();
+	}
+
+	public SearchResult search(ChessMatch chessMatch, SearchLimits limits) {
+		return search(chessMatch.getBitboard(), limits);
+	}
+
+	public SearchResult search(BitboardPosition position, SearchLimits limits) {
+		long start = System.nanoTime();
+		stop.set(false);
+		transpositionTable.newSearch();
+		SearchLimits helperLimits = new SearchLimits(limits.getMaxDepth(), 0, limits.getTimeMillis());
+
+		List<Future<SearchResult>> futures = new ArrayList<>(searches.length);
+		SearchResult[] results = new SearchResult[searches.length];
+		boolean completed = false;
+		try {
+			for (int i = 0; i < searches.length; i++) {
+				Search search = searches[i];
+				search.setPosition(position);
+				SearchLimits threadLimits = (i == 0) ? limits : helperLimits;
+				int firstDepth = 1 + (i % 2);
+				futures.add(executor.submit(() -> search.search(threadLimits, firstDepth, false)));
+			}
+
+			results[0] = futures.get(0).get();
+			stop.set(true);
+			for (int i = 1; i < searches.length; i++) {
+				results[i] = futures.get(i).get();
+			}
+			completed = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The search was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A search thread failed", e.getCause());
+		} finally {
+			if (!completed) {
+				stop.set(true);
+				awaitAll(futures);
+			}
+		}
+		threadResults = results;
+
+		SearchResult best = results[0];
+		long nodes = 0;
+		for (SearchResult result : results) {
+			nodes += result.getNodes();
+			if (result.getDepth() > best.getDepth() && result.getBestMove() != 0) {
+				best = result;
+			}
+		}
+		return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), best.getPrincipalVariation(), nodes,
+				System.nanoTime() - start);
+	}
+
+	/*
+	 * Waits for every thread of a search that failed or was interrupted, so that no
+	 * Search is still running (and writing to the table) when the next search sets
+	 * the positions. The stop flag makes them return after a few nodes, and the wait
+	 * goes on even if this thread is interrupted, which is then told again
+	*/
+	private static void awaitAll(List<Future<SearchResult>> futures) {
+		boolean interrupted = Thread.interrupted();
+		for (Future<SearchResult> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException | CancellationException e) {
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Stops the search running in another thread, which returns the best move of the
+	 * iterations it completed. The threads stay ready for the next search, only the
+	 * close() ends them
+	*/
+	public void stop() {
+		stop.set(true);
+	}
+
+	/*
+	 * Nodes per second of each thread of the last search, and of all of them
+	*/
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		long total = 0;
+		for (int i = 0; i < threadResults.length; i++) {
+			SearchResult result = threadResults[i];
+			total += result.getNodesPerSecond();
+			sb.append(String.format("thread %d: depth %d, %d nodes, %,d nodes/s%n", i, result.getDepth(), result.getNodes(),
+					result.getNodesPerSecond()));
+		}
+		sb.append(String.format("total: %,d nodes/s, table %s", total, transpositionTable));
+		return sb.toString();
+	}
+
+	@Override
+	public void close() {
+		stop();
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,69 @@
+package chess.engine;
+
+/*
+ * Cache of the pawn structure scores, keyed by the Zobrist key of the pawns alone
+ *
+ * The pawns move much less than the other pieces, so the same pawn structure is
+ * evaluated at a lot of nodes of a search and almost every lookup is a hit. The
+ * table has a fixed size given in MB, each entry is the pawn key and the score, and
+ * a new entry always replaces the old one of its index
+ *
+ * The table is not thread safe, each Search has its own
+*/
+public class PawnHashTable {
+
+	// A long for the key and an int for the score
+	private static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES;
+
+	private final long[] keys;
+	private final int[] scores;
+	private final int mask;
+
+	private long probes;
+	private long hits;
+
+	public PawnHashTable(int sizeInMegabytes) {
+		if (sizeInMegabytes < 1) {
+			throw new IllegalArgumentException("The pawn hash table must have at least 1 MB");
+		}
+		int entries = (int) Long.highestOneBit(Math.min((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_ENTRY, 1L << 30));
+		keys = new long[entries];
+		scores = new int[entries];
+		mask = entries - 1;
+	}
+
+	/*
+	 * Score of the pawn structure (White minus Black), computed by the PawnStructure
+	 * only if the pawns are not in the table yet
+	*/
+	public int evaluate(long pawnKey, long whitePawns, long blackPawns) {
+		probes++;
+		int index = (int) (pawnKey ^ (pawnKey >>> 32)) & mask;
+		// The key of a position without pawns is 0, as is an empty entry, and its score is 0 too
+		if (keys[index] == pawnKey) {
+			hits++;
+			return scores[index];
+		}
+		int score = PawnStructure.evaluate(whitePawns, blackPawns);
+		keys[index] = pawnKey;
+		scores[index] = score;
+		return score;
+	}
+
+	public long getProbes() {
+		return probes;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public double getHitRate() {
+		return (probes == 0) ? 0.0 : (double) hits / probes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d entries, %d probes, %d hits (%.1f%%)", keys.length, probes, hits, getHitRate() * 100);
+	}
+}
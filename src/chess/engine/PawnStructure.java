@@ -0,0 +1,83 @@
+package chess.engine;
+
+import static chess.bitboard.Bitboard.BLACK;
+import static chess.bitboard.Bitboard.FILE_A;
+import static chess.bitboard.Bitboard.WHITE;
+
+import chess.bitboard.Bitboard;
+
+/*
+ * Evaluation of the pawn structure, it only depends on where the pawns are:
+ *
+ * doubled pawns	- more than one pawn of a color on the same column
+ * isolated pawns	- no pawn of the same color on the neighbour columns
+ * passed pawns		- no opponent pawn in front of it, on its column or on the
+ * 					neighbour ones, the bonus grows as the pawn advances
+*/
+public final class PawnStructure {
+
+	private static final int DOUBLED_PENALTY = 12;
+	private static final int ISOLATED_PENALTY = 15;
+	// Indexed by the rank of the pawn from its own side, from 1 to 8
+	private static final int[] PASSED_BONUS = { 0, 0, 10, 15, 25, 40, 65, 100, 0 };
+
+	private static final long[] FILES = new long[8];
+	private static final long[] NEIGHBOUR_FILES = new long[8];
+	// Squares that must be free of opponent pawns for a pawn to be passed
+	private static final long[][] PASSED_MASK = new long[2][64];
+
+	static {
+		for (int column = 0; column < 8; column++) {
+			FILES[column] = FILE_A << column;
+		}
+		for (int column = 0; column < 8; column++) {
+			NEIGHBOUR_FILES[column] = ((column > 0) ? FILES[column - 1] : 0L) | ((column < 7) ? FILES[column + 1] : 0L);
+		}
+		for (int sq = 0; sq < 64; sq++) {
+			int row = Bitboard.row(sq);
+			long span = FILES[Bitboard.column(sq)] | NEIGHBOUR_FILES[Bitboard.column(sq)];
+			for (int r = 0; r < 8; r++) {
+				long rank = Bitboard.RANK_8 << (r * 8);
+				if (r < row) {
+					PASSED_MASK[WHITE][sq] |= span & rank;
+				} else if (r > row) {
+					PASSED_MASK[BLACK][sq] |= span & rank;
+				}
+			}
+		}
+	}
+
+	private PawnStructure() {
+
+	}
+
+	/*
+	 * Score of the structure of White minus the structure of Black
+	*/
+	public static int evaluate(long whitePawns, long blackPawns) {
+		return evaluate(WHITE, whitePawns, blackPawns) - evaluate(BLACK, blackPawns, whitePawns);
+	}
+
+	private static int evaluate(int color, long pawns, long opponentPawns) {
+		int score = 0;
+		for (int column = 0; column < 8; column++) {
+			int count = Long.bitCount(pawns & FILES[column]);
+			if (count > 1) {
+				score -= DOUBLED_PENALTY * (count - 1);
+			}
+			if (count > 0 && (pawns & NEIGHBOUR_FILES[column]) == 0) {
+				score -= ISOLATED_PENALTY * count;
+			}
+		}
+		long remaining = pawns;
+		while (remaining != 0) {
+			int sq = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			if ((PASSED_MASK[color][sq] & opponentPawns) == 0) {
+				int rank = (color == WHITE) ? 8 - Bitboard.row(sq) : Bitboard.row(sq) + 1;
+				score += PASSED_BONUS[rank];
+			}
+		}
+		return score;
+	}
+}
@@ -0,0 +1,461 @@
+package chess.engine;
+
+import static chess.bitboard.Bitboard.EMPTY;
+import static chess.bitboard.Bitboard.PAWN;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chess.ChessMatch;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+
+/*
+ * Alpha-beta search in the negamax form: the score of a position is the best of the
+ * negated scores of its children, and the branches that can't change the result
+ * (the score went out of the alpha-beta window) are cut
+ *
+ * The search deepens one ply at a time (iterative deepening), the best move of the
+ * last complete iteration is the answer when the time or the nodes run out, and
+ * the moves are tried in the order that makes the cuts happen as soon as possible:
+ *
+ * 1. the best move of the previous iteration
+ * 2. captures, the most valuable victim by the least valuable attacker first
+ * 3. promotions
+ * 4. killer moves, quiet moves that cut another branch at the same ply
+ * 5. the other quiet moves, by their history of cuts
+ *
+ * At the end of the depth, the quiescence search keeps trying the captures, so the
+ * position is evaluated only when it is quiet
+ *
+ * The results are stored in a TranspositionTable, which can be shared by several
+ * searches, a position found in it with enough depth is not searched again, and its
+ * best move is tried first when it has to be
+ *
+ * A Search works on its own copy of the position and is not thread safe, each
+ * thread must have its own Search
+*/
+public class Search {
+
+	public static final int MAX_PLY = 128;
+	public static final int INFINITE = 32000;
+	public static final int MATE = 31000;
+	public static final int MATE_BOUND = MATE - MAX_PLY;
+
+	// The time and the stop flag are tested once every this number of nodes plus one
+	private static final int CHECK_INTERVAL = 1023;
+
+	private static final int PV_MOVE_SCORE = 2_000_000_000;
+	private static final int CAPTURE_SCORE = 1_000_000_000;
+	private static final int PROMOTION_SCORE = 900_000_000;
+	private static final int KILLER_SCORE = 800_000_000;
+	private static final int HISTORY_LIMIT = 1 << 24;
+
+	public static final int DEFAULT_TABLE_SIZE_MB = 16;
+	public static final int DEFAULT_PAWN_TABLE_SIZE_MB = 1;
+
+	private final BitboardPosition position;
+	private final TranspositionTable transpositionTable;
+	private final PawnHashTable pawnHashTable = new PawnHashTable(DEFAULT_PAWN_TABLE_SIZE_MB);
+
+	private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+	private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+	private final int[][] killers = new int[MAX_PLY][2];
+	private final int[][] history = new int[2][64 * 64];
+	private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+	private final int[] pvLength = new int[MAX_PLY];
+	private final int[] previousPv = new int[MAX_PLY];
+	private int previousPvLength;
+
+	private long nodes;
+	// Depth of the current iteration, the check extensions stop at twice this ply
+	private int rootDepth;
+	private long maxNodes;
+	private long deadline;
+	private volatile boolean stopped;
+	// Stop flag of a group of searches, as the ones of the LazySmp, or null
+	private AtomicBoolean sharedStop;
+
+	public Search(BitboardPosition position) {
+		this(position, new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+	}
+
+	/*
+	 * The table may be null, then the search runs without it
+	*/
+	public Search(BitboardPosition position, TranspositionTable transpositionTable) {
+		this.position = new BitboardPosition(position);
+		this.transpositionTable = transpositionTable;
+	}
+
+	public Search(ChessMatch chessMatch) {
+		this(chessMatch.getBitboard());
+	}
+
+	public TranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	public PawnHashTable getPawnHashTable() {
+		return pawnHashTable;
+	}
+
+	/*
+	 * Replaces the position to be searched, the histories of the previous searches
+	 * are kept, as they are still useful in the positions of the same game
+	*/
+	public void setPosition(BitboardPosition position) {
+		this.position.copyFrom(position);
+	}
+
+	/*
+	 * Can be called by another thread to stop the search, which returns the result
+	 * of the last complete iteration
+	*/
+	public void stop() {
+		stopped = true;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public SearchResult search(SearchLimits limits) {
+		return search(limits, 1, true);
+	}
+
+	void setSharedStop(AtomicBoolean sharedStop) {
+		this.sharedStop = sharedStop;
+	}
+
+	/*
+	 * The iterations start at the first depth, the helpers of the LazySmp start at
+	 * different depths so that they don't all search the same tree at the same time,
+	 * and only one of the searches of a shared table starts a new table search
+	*/
+	SearchResult search(SearchLimits limits, int firstDepth, boolean newTableSearch) {
+		long start = System.nanoTime();
+		nodes = 0;
+		stopped = false;
+		maxNodes = (limits.getMaxNodes() == 0) ? Long.MAX_VALUE : limits.getMaxNodes();
+		deadline = (limits.getTimeMillis() == 0) ? Long.MAX_VALUE : start + limits.getTimeMillis() * 1_000_000L;
+		int maxDepth = (limits.getMaxDepth() == 0) ? MAX_PLY - 1 : Math.min(limits.getMaxDepth(), MAX_PLY - 1);
+		prepareHistory();
+		if (transpositionTable != null && newTableSearch) {
+			transpositionTable.newSearch();
+		}
+
+		int bestMove = 0;
+		int bestScore = 0;
+		int completedDepth = 0;
+		int[] principalVariation = new int[0];
+		previousPvLength = 0;
+		for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+			rootDepth = depth;
+			int score = negamax(depth, 0, -INFINITE, INFINITE, bestMove);
+			// An interrupted iteration is discarded, unless it is the first one
+			if (stopped && completedDepth > 0) {
+				break;
+			}
+			completedDepth = depth;
+			bestScore = score;
+			principalVariation = Arrays.copyOf(pvTable[0], pvLength[0]);
+			bestMove = (principalVariation.length > 0) ? principalVariation[0] : 0;
+			System.arraycopy(principalVariation, 0, previousPv, 0, principalVariation.length);
+			previousPvLength = principalVariation.length;
+			if (stopped || bestMove == 0 || Math.abs(score) >= MATE_BOUND) {
+				break;
+			}
+		}
+		// Stopped before a root move was searched, any legal move is better than none
+		if (bestMove == 0 && MoveGenerator.generateLegalMoves(position, moves[0]) > 0) {
+			bestMove = moves[0][0];
+			principalVariation = new int[] { bestMove };
+		}
+		return new SearchResult(bestMove, bestScore, completedDepth, principalVariation, nodes, System.nanoTime() - start);
+	}
+
+	private int negamax(int depth, int ply, int alpha, int beta, int pvMove) {
+		pvLength[ply] = 0;
+		if (testLimits()) {
+			return 0;
+		}
+		int us = position.getSideToMove();
+		boolean inCheck = position.isInCheck(us);
+		/*
+		 * A check is never the last move before the quiescence, the reply is searched
+		 * too. A line of checks could go on until the MAX_PLY, as in a perpetual check,
+		 * so the extension is only given up to twice the depth of the iteration
+		*/
+		if (inCheck && ply < 2 * rootDepth) {
+			depth++;
+		}
+		if (depth <= 0 || ply >= MAX_PLY - 1) {
+			return quiescence(ply, alpha, beta);
+		}
+		nodes++;
+
+		long key = position.getKey();
+		int tableMove = 0;
+		if (transpositionTable != null) {
+			long data = transpositionTable.probe(key);
+			if (data != 0) {
+				tableMove = TranspositionTable.move(data);
+				// The root always searches, so that it has a principal variation
+				if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+					int score = fromTable(TranspositionTable.score(data), ply);
+					int bound = TranspositionTable.bound(data);
+					if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+							|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+						return score;
+					}
+				}
+			}
+		}
+
+		int[] buffer = moves[ply];
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+		if (count == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		scoreMoves(ply, count, (pvMove != 0) ? pvMove : tableMove);
+
+		int originalAlpha = alpha;
+		int best = -INFINITE;
+		int bestMove = 0;
+		for (int i = 0; i < count; i++) {
+			int move = nextMove(ply, i, count);
+			boolean quiet = !Move.isCapture(move) && Move.promotion(move) == 0;
+			position.makeMove(move);
+			int score = -negamax(depth - 1, ply + 1, -beta, -alpha, followPv(ply, move, pvMove));
+			position.unmakeMove(move);
+			if (stopped) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta) {
+						if (quiet) {
+							storeKiller(ply, move);
+							updateHistory(us, move, depth);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		if (transpositionTable != null) {
+			int bound = (best <= originalAlpha) ? TranspositionTable.UPPER
+					: (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+			// Without a move that raised the alpha, there is no best move to be trusted
+			transpositionTable.store(key, (bound == TranspositionTable.UPPER) ? 0 : bestMove, toTable(best, ply), depth, bound);
+		}
+		return best;
+	}
+
+	/*
+	 * The mate scores are counted from the root, but a position of the table can be
+	 * found again at another ply, so they are stored counted from the position
+	*/
+	private static int toTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score + ply;
+		}
+		if (score <= -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score - ply;
+		}
+		if (score <= -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/*
+	 * Searches only the captures and promotions, the side to move can also "stand
+	 * pat" and keep the static evaluation, unless it is in check, when all the moves
+	 * are searched
+	*/
+	private int quiescence(int ply, int alpha, int beta) {
+		pvLength[ply] = 0;
+		if (testLimits()) {
+			return 0;
+		}
+		nodes++;
+		boolean inCheck = position.isInCheck(position.getSideToMove());
+		if (ply >= MAX_PLY - 1) {
+			return inCheck ? 0 : Evaluation.evaluate(position, pawnHashTable);
+		}
+		int best = -INFINITE;
+		if (!inCheck) {
+			best = Evaluation.evaluate(position, pawnHashTable);
+			if (best >= beta) {
+				return best;
+			}
+			if (best > alpha) {
+				alpha = best;
+			}
+		}
+
+		int[] buffer = moves[ply];
+		int count = MoveGenerator.generateLegalMoves(position, buffer);
+		if (count == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		if (!inCheck) {
+			count = keepTacticalMoves(buffer, count);
+		}
+		scoreMoves(ply, count, 0);
+
+		for (int i = 0; i < count; i++) {
+			int move = nextMove(ply, i, count);
+			position.makeMove(move);
+			int score = -quiescence(ply + 1, -beta, -alpha);
+			position.unmakeMove(move);
+			if (stopped) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	private boolean testLimits() {
+		if ((nodes & CHECK_INTERVAL) == 0 && !stopped) {
+			if (nodes >= maxNodes || System.nanoTime() >= deadline || (sharedStop != null && sharedStop.get())) {
+				stopped = true;
+			}
+		}
+		return stopped;
+	}
+
+	// Moves the captures and promotions to the beginning of the buffer, returns how many
+	private int keepTacticalMoves(int[] buffer, int count) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (Move.isCapture(buffer[i]) || Move.promotion(buffer[i]) != 0) {
+				buffer[kept++] = buffer[i];
+			}
+		}
+		return kept;
+	}
+
+	private void scoreMoves(int ply, int count, int pvMove) {
+		int[] buffer = moves[ply];
+		int[] scores = moveScores[ply];
+		int side = position.getSideToMove();
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			int from = Move.from(move);
+			int to = Move.to(move);
+			if (move == pvMove) {
+				scores[i] = PV_MOVE_SCORE;
+			} else if (Move.isCapture(move)) {
+				int victim = position.pieceAt(to);
+				int victimValue = (victim == EMPTY) ? Evaluation.PIECE_VALUES[PAWN] : Evaluation.PIECE_VALUES[Bitboard.typeOf(victim)];
+				scores[i] = CAPTURE_SCORE + victimValue * 8 - Bitboard.typeOf(position.pieceAt(from));
+			} else if (Move.promotion(move) != 0) {
+				scores[i] = PROMOTION_SCORE + Move.promotion(move);
+			} else if (move == killers[ply][0]) {
+				scores[i] = KILLER_SCORE + 1;
+			} else if (move == killers[ply][1]) {
+				scores[i] = KILLER_SCORE;
+			} else {
+				scores[i] = history[side][from * 64 + to];
+			}
+		}
+	}
+
+	/*
+	 * Selection of the move with the best score among the ones not tried yet, it is
+	 * swapped to the index, so the moves are only sorted as far as they are needed
+	*/
+	private int nextMove(int ply, int index, int count) {
+		int[] buffer = moves[ply];
+		int[] scores = moveScores[ply];
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = buffer[best];
+		buffer[best] = buffer[index];
+		buffer[index] = move;
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+		return move;
+	}
+
+	// The move of the previous principal variation at the next ply, while the search is still on it
+	private int followPv(int ply, int move, int pvMove) {
+		if (move != pvMove || pvMove == 0 || ply + 1 >= previousPvLength) {
+			return 0;
+		}
+		return previousPv[ply + 1];
+	}
+
+	private void updatePv(int ply, int move) {
+		pvTable[ply][0] = move;
+		System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+		pvLength[ply] = pvLength[ply + 1] + 1;
+	}
+
+	private void storeKiller(int ply, int move) {
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+	}
+
+	private void updateHistory(int color, int move, int depth) {
+		int index = Move.from(move) * 64 + Move.to(move);
+		history[color][index] += depth * depth;
+		if (history[color][index] > HISTORY_LIMIT) {
+			for (int[] table : history) {
+				for (int i = 0; i < table.length; i++) {
+					table[i] /= 2;
+				}
+			}
+		}
+	}
+
+	/*
+	 * The killers belong to the plies of the previous search, they are cleared, and
+	 * the history is halved, so the new position has more weight than the old ones
+	*/
+	private void prepareHistory() {
+		for (int[] pair : killers) {
+			pair[0] = 0;
+			pair[1] = 0;
+		}
+		for (int[] table : history) {
+			for (int i = 0; i < table.length; i++) {
+				table[i] /= 2;
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package chess.engine;
+
+/*
+ * Budget of a search: the search stops at the first of the limits it reaches, the
+ * maximum depth, the number of nodes or the time. A limit of 0 means no limit on it
+ * (the depth is still limited by Search.MAX_PLY)
+*/
+public class SearchLimits {
+
+	private final int maxDepth;
+	private final long maxNodes;
+	private final long timeMillis;
+
+	public SearchLimits(int maxDepth, long maxNodes, long timeMillis) {
+		if (maxDepth < 0 || maxNodes < 0 || timeMillis < 0) {
+			throw new IllegalArgumentException("The limits of a search can't be negative");
+		}
+		this.maxDepth = maxDepth;
+		this.maxNodes = maxNodes;
+		this.timeMillis = timeMillis;
+	}
+
+	public static SearchLimits depth(int maxDepth) {
+		return new SearchLimits(maxDepth, 0, 0);
+	}
+
+	public static SearchLimits nodes(long maxNodes) {
+		return new SearchLimits(0, maxNodes, 0);
+	}
+
+	public static SearchLimits time(long timeMillis) {
+		return new SearchLimits(0, 0, timeMillis);
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "depth " + maxDepth + ", nodes " + maxNodes + ", time " + timeMillis + " ms";
+	}
+}
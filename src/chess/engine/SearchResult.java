@@ -0,0 +1,84 @@
+package chess.engine;
+
+import chess.bitboard.Move;
+
+/*
+ * Result of the last completed iteration of a search: the best move, its score in
+ * centipawns for the side to move, the principal variation (the moves expected
+ * from both players) and the statistics of the whole search
+*/
+public class SearchResult {
+
+	private final int bestMove;
+	private final int score;
+	private final int depth;
+	private final int[] principalVariation;
+	private final long nodes;
+	private final long elapsedNanos;
+
+	public SearchResult(int bestMove, int score, int depth, int[] principalVariation, long nodes, long elapsedNanos) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.principalVariation = principalVariation;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/*
+	 * The best move, encoded by the Move class, or 0 if the side to move has no
+	 * legal move (check mate or stalemate)
+	*/
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getNodesPerSecond() {
+		return (long) (nodes * 1e9 / Math.max(elapsedNanos, 1L));
+	}
+
+	/*
+	 * Mate scores are counted in plies from the root, a score beyond Search.MATE_BOUND
+	 * means a forced check mate
+	*/
+	public boolean isMate() {
+		return Math.abs(score) >= Search.MATE_BOUND;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("depth ").append(depth);
+		if (isMate()) {
+			int plies = Search.MATE - Math.abs(score);
+			sb.append(" mate ").append((score > 0) ? (plies + 1) / 2 : -(plies + 1) / 2);
+		} else {
+			sb.append(" score ").append(score);
+		}
+		sb.append(" nodes ").append(nodes).append(" nps ").append(getNodesPerSecond()).append(" pv");
+		for (int move : principalVariation) {
+			sb.append(' ').append(Move.toString(move));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,188 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * The transposition table keeps the results of the positions already searched, so
+ * a position reached again by another order of moves doesn't need a new search
+ *
+ * The table has a fixed size given in MB, it is an array of buckets with two
+ * entries each:
+ *
+ * depth-preferred	- replaced only by a deeper search of any position, or by any
+ * 					search of the same position, or if it is from an old search
+ * always-replace	- receives everything that the first entry didn't keep
+ *
+ * There are no locks, the table can be shared by many search threads: each entry is
+ * two longs, the key XOR the data and the data, a reader accepts the entry only if
+ * the XOR of them gives back the key, so an entry half written by another thread is
+ * seen as a miss instead of a wrong result
+ *
+ * The data of an entry is packed in a long:
+ *
+ * bits 0 to 15		- best move (Move encoding)
+ * bits 16 to 31	- score, a signed short
+ * bits 32 to 39	- depth
+ * bits 40 to 41	- bound (EXACT, LOWER or UPPER)
+ * bits 42 to 49	- generation, the search that wrote the entry
+*/
+public class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+
+	// Two entries of two longs each
+	private static final int LONGS_PER_BUCKET = 4;
+	private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+	private final long[] table;
+	private final int bucketMask;
+	private volatile int generation;
+
+	private final LongAdder probes = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+
+	/*
+	 * The number of buckets is the greatest power of two that fits in the size, so
+	 * the bucket of a key is found with a mask instead of a division
+	*/
+	public TranspositionTable(int sizeInMegabytes) {
+		if (sizeInMegabytes < 1) {
+			throw new IllegalArgumentException("The transposition table must have at least 1 MB");
+		}
+		long buckets = Long.highestOneBit((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+		if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+			buckets = Integer.highestOneBit((Integer.MAX_VALUE - 8) / LONGS_PER_BUCKET);
+		}
+		table = new long[(int) buckets * LONGS_PER_BUCKET];
+		bucketMask = (int) buckets - 1;
+	}
+
+	/*
+	 * Called at the beginning of a search, the entries of the previous searches are
+	 * still used but they are the first to be replaced
+	*/
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0L);
+		generation = 0;
+		probes.reset();
+		hits.reset();
+		stores.reset();
+	}
+
+	/*
+	 * Returns the data of the entry of the key, or 0 if there is none (the data of a
+	 * stored entry is never 0, as its bound is never 0)
+	*/
+	public long probe(long key) {
+		probes.increment();
+		int index = bucketIndex(key);
+		for (int entry = index; entry < index + LONGS_PER_BUCKET; entry += 2) {
+			long data = table[entry + 1];
+			if ((table[entry] ^ data) == key && data != 0) {
+				hits.increment();
+				return data;
+			}
+		}
+		return 0L;
+	}
+
+	public void store(long key, int move, int score, int depth, int bound) {
+		stores.increment();
+		int index = bucketIndex(key);
+		long data = pack(move, score, depth, bound, generation);
+
+		long firstData = table[index + 1];
+		boolean sameKey = (table[index] ^ firstData) == key;
+		if (sameKey || firstData == 0 || depth >= depth(firstData) || generation(firstData) != generation) {
+			// A new search of the same position without a best move keeps the old one
+			if (sameKey && move == 0) {
+				data |= move(firstData);
+			}
+			table[index] = key ^ data;
+			table[index + 1] = data;
+		} else {
+			table[index + 2] = key ^ data;
+			table[index + 3] = data;
+		}
+	}
+
+	private int bucketIndex(long key) {
+		return ((int) (key ^ (key >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+	}
+
+	private static long pack(int move, int score, int depth, int bound, int generation) {
+		return (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) (depth & 0xFF) << 32)
+				| ((long) bound << 40) | ((long) generation << 42);
+	}
+
+	public static int move(long data) {
+		return (int) (data & 0xFFFF);
+	}
+
+	public static int score(long data) {
+		return (short) (data >>> 16);
+	}
+
+	public static int depth(long data) {
+		return (int) ((data >>> 32) & 0xFF);
+	}
+
+	public static int bound(long data) {
+		return (int) ((data >>> 40) & 0x3);
+	}
+
+	private static int generation(long data) {
+		return (int) ((data >>> 42) & 0xFF);
+	}
+
+	public long getSizeInBytes() {
+		return (long) table.length * Long.BYTES;
+	}
+
+	public long getProbes() {
+		return probes.sum();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getStores() {
+		return stores.sum();
+	}
+
+	public double getHitRate() {
+		long p = probes.sum();
+		return (p == 0) ? 0.0 : (double) hits.sum() / p;
+	}
+
+	/*
+	 * Permille of the entries used by the current search, estimated from the first
+	 * thousand entries of the table
+	*/
+	public int getHashFull() {
+		int sampled = Math.min(1000, table.length / 2);
+		int used = 0;
+		for (int i = 0; i < sampled; i++) {
+			long data = table[i * 2 + 1];
+			if (data != 0 && generation(data) == generation) {
+				used++;
+			}
+		}
+		return used * 1000 / sampled;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d MB, %d probes, %d hits (%.1f%%), %d stores, %d permille full",
+				getSizeInBytes() / (1024 * 1024), getProbes(), getHits(), getHitRate() * 100, getStores(), getHashFull());
+	}
+}
@@ -0,0 +1,165 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import chess.ChessException;
+import chess.ChessMatch;
+
+/*
+ * The BatchReplay replays the games of a PgnReader on a pool of worker threads,
+ * the games are independent, so each one is replayed on its own ChessMatch by
+ * whichever worker is free
+ *
+ * The calling thread reads the games in chunks and hands each chunk to the pool,
+ * the results of a chunk are given to the consumer only after the results of the
+ * chunks before it, so they come in the same order as the games of the file
+ *
+ * At most two chunks per worker are read ahead, and their PgnGame objects are
+ * reused when their results are given, so the memory doesn't grow with the size
+ * of the file
+*/
+public class BatchReplay implements AutoCloseable {
+
+	private final ExecutorService executor;
+	private final int threads;
+	private final int chunkSize;
+
+	public BatchReplay(int threads, int chunkSize) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("The batch replay needs at least one thread");
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunks must have at least one game");
+		}
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "batch-replay-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/*
+	 * Replays every game of the reader and gives the result of each one to the
+	 * consumer, in the order of the games, returns the number of games
+	*/
+	public long replay(PgnReader reader, Consumer<ReplayResult> consumer) throws IOException {
+		Deque<Future<ReplayResult[]>> pending = new ArrayDeque<>();
+		Deque<PgnGame[]> pendingChunks = new ArrayDeque<>();
+		Deque<PgnGame[]> freeChunks = new ArrayDeque<>();
+		long games = 0;
+
+		try {
+			boolean end = false;
+			while (!end || !pending.isEmpty()) {
+				// Reads ahead until every worker has a chunk waiting
+				while (!end && pending.size() < threads * 2) {
+					PgnGame[] chunk = freeChunks.isEmpty() ? newChunk() : freeChunks.poll();
+					int count = 0;
+					while (count < chunk.length && reader.next(chunk[count])) {
+						count++;
+					}
+					end = count < chunk.length;
+					if (count > 0) {
+						int size = count;
+						pending.add(executor.submit(() -> replayChunk(chunk, size)));
+						pendingChunks.add(chunk);
+					}
+				}
+
+				if (!pending.isEmpty()) {
+					for (ReplayResult result : pending.poll().get()) {
+						consumer.accept(result);
+						games++;
+					}
+					freeChunks.add(pendingChunks.poll());
+				}
+			}
+		} catch (InterruptedException e) {
+			cancel(pending);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The batch replay was interrupted", e);
+		} catch (ExecutionException e) {
+			cancel(pending);
+			throw new IllegalStateException("A replay thread failed", e.getCause());
+		} catch (IOException | RuntimeException e) {
+			cancel(pending);
+			throw e;
+		}
+		return games;
+	}
+
+	/*
+	 * Replays every game of the reader and returns the results, in the order of the
+	 * games. All the results are kept, the replay() with a consumer is the one for
+	 * the large files
+	*/
+	public List<ReplayResult> replayAll(PgnReader reader) throws IOException {
+		List<ReplayResult> results = new ArrayList<>();
+		replay(reader, results::add);
+		return Collections.unmodifiableList(results);
+	}
+
+	private PgnGame[] newChunk() {
+		PgnGame[] chunk = new PgnGame[chunkSize];
+		for (int i = 0; i < chunkSize; i++) {
+			chunk[i] = new PgnGame();
+		}
+		return chunk;
+	}
+
+	private static ReplayResult[] replayChunk(PgnGame[] chunk, int count) {
+		ReplayResult[] results = new ReplayResult[count];
+		for (int i = 0; i < count; i++) {
+			results[i] = replay(chunk[i]);
+		}
+		return results;
+	}
+
+	/*
+	 * A game that can't be replayed gives a result with the error, the other games
+	 * go on. Besides the illegal moves, any other failure of a single game, as a bug
+	 * found by a strange position, is also kept as the error of that game only
+	*/
+	public static ReplayResult replay(PgnGame game) {
+		try {
+			ChessMatch chessMatch = game.replay();
+			return new ReplayResult(game.getNumber(), game.getPlyCount(), game.getResult(), chessMatch.getSnapshot(),
+					chessMatch.getCheckMate(), chessMatch.getCapturedPieces(), null);
+		} catch (IllegalArgumentException | ChessException e) {
+			return new ReplayResult(game.getNumber(), game.getPlyCount(), game.getResult(), null, false,
+					Collections.emptyList(), e.getMessage());
+		} catch (RuntimeException e) {
+			return new ReplayResult(game.getNumber(), game.getPlyCount(), game.getResult(), null, false,
+					Collections.emptyList(), "Error replaying game " + game.getNumber() + ": " + e);
+		}
+	}
+
+	private static void cancel(Deque<Future<ReplayResult[]>> pending) {
+		for (Future<ReplayResult[]> future : pending) {
+			future.cancel(true);
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,137 @@
+package chess.pgn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.bitboard.MoveGenerator;
+import chess.bitboard.San;
+
+/*
+ * A game read by the PgnReader: its tag pairs, its moves in SAN and its result
+ *
+ * The SAN moves are kept in a single buffer, one after the other, and the replay()
+ * decodes them straight from the buffer. The same PgnGame is meant to be reused
+ * for every game of a file, so that reading a whole archive needs a constant
+ * amount of memory
+*/
+public class PgnGame {
+
+	private final Map<String, String> tags = new LinkedHashMap<>();
+	private final StringBuilder moveText = new StringBuilder(1024);
+	// The SAN i goes from the end of the SAN i - 1 to sanEnds[i]
+	private int[] sanEnds = new int[256];
+	private int sanCount;
+	private String result;
+	private long number;
+
+	// Moves decoded by the last replay(), encoded by the Move class
+	private int[] moves = new int[256];
+	private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+	void clear(long number) {
+		tags.clear();
+		moveText.setLength(0);
+		sanCount = 0;
+		result = null;
+		this.number = number;
+	}
+
+	void addTag(String name, String value) {
+		tags.put(name, value);
+	}
+
+	void addSan(char[] chars, int start, int length) {
+		if (sanCount == sanEnds.length) {
+			sanEnds = Arrays.copyOf(sanEnds, sanCount * 2);
+		}
+		moveText.append(chars, start, length);
+		sanEnds[sanCount++] = moveText.length();
+	}
+
+	void setResult(String result) {
+		this.result = result;
+	}
+
+	/*
+	 * Position of the game in the file, the first one is 0
+	*/
+	public long getNumber() {
+		return number;
+	}
+
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	public Map<String, String> getTags() {
+		return Collections.unmodifiableMap(tags);
+	}
+
+	/*
+	 * The result at the end of the moves (1-0, 0-1, 1/2-1/2 or *), or the one of the
+	 * Result tag if the moves don't end with it
+	*/
+	public String getResult() {
+		if (result != null) {
+			return result;
+		}
+		String tag = tags.get("Result");
+		return (tag != null) ? tag : "*";
+	}
+
+	public int getPlyCount() {
+		return sanCount;
+	}
+
+	public String getSan(int ply) {
+		return moveText.substring(sanStart(ply), sanEnds[ply]);
+	}
+
+	/*
+	 * The move of the ply found by the last replay()
+	*/
+	public int getMove(int ply) {
+		return moves[ply];
+	}
+
+	private int sanStart(int ply) {
+		return (ply == 0) ? 0 : sanEnds[ply - 1];
+	}
+
+	/*
+	 * Plays the moves of the game on a new ChessMatch, from the initial setup or from
+	 * the FEN tag, and returns it. Each SAN is decoded among the legal moves of the
+	 * match, and then played by the performChessMove(), so the match applies all of
+	 * its rules
+	 *
+	 * A move that is illegal, ambiguous or after the CHECK MATE throws an
+	 * IllegalArgumentException
+	*/
+	public ChessMatch replay() {
+		String fen = tags.get("FEN");
+		ChessMatch chessMatch = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		if (moves.length < sanCount) {
+			moves = new int[sanEnds.length];
+		}
+
+		for (int ply = 0; ply < sanCount; ply++) {
+			int move = chessMatch.getCheckMate() ? MoveGenerator.NO_MOVE
+					: San.decode(chessMatch.getBitboard(), moveText, sanStart(ply), sanEnds[ply], buffer);
+			if (move == MoveGenerator.NO_MOVE) {
+				throw new IllegalArgumentException("Illegal move " + getSan(ply) + " at ply " + (ply + 1) + " of game " + number);
+			}
+			moves[ply] = move;
+			chessMatch.performChessMove(move);
+		}
+		return chessMatch;
+	}
+
+	@Override
+	public String toString() {
+		return "Game " + number + ": " + tags.getOrDefault("White", "?") + " - " + tags.getOrDefault("Black", "?") + " "
+				+ getResult() + ", " + sanCount + " plies";
+	}
+}
@@ -0,0 +1,260 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * The PgnReader reads the games of a Portable Game Notation (PGN) file one at a
+ * time, through a channel and a fixed direct buffer, so an archive of any size is
+ * read with the same memory:
+ *
+ * [Event "Example"]
+ * [White "A"]
+ * [Black "B"]
+ * [Result "1-0"]
+ *
+ * 1. e4 e5 2. Bc4 Nc6 3. Qh5 {threatens mate} Nf6?? (3... g6) 4. Qxf7# 1-0
+ *
+ * The tag pairs and the SAN moves are given to a PgnGame, the move numbers, the
+ * comments ({...} and ; to the end of the line), the variations (...) and the
+ * annotations ($1, !, ?) are skipped. A game ends with its result, or where the
+ * tags of the next game begin
+*/
+public class PgnReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int NONE = -2;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private int pushedBack = NONE;
+	private long games;
+
+	// Reusable buffers for the tokens of the movetext and the values of the tags
+	private char[] token = new char[32];
+	private byte[] tagValue = new byte[64];
+
+	public PgnReader(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer.limit(0);
+	}
+
+	public static PgnReader open(Path path) throws IOException {
+		return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+	}
+
+	/*
+	 * Reads the next game into the given PgnGame, returns false at the end of the
+	 * file
+	*/
+	public boolean next(PgnGame game) throws IOException {
+		game.clear(games);
+		boolean found = false;
+		boolean movetext = false;
+
+		int c;
+		while ((c = read()) != -1) {
+			if (c <= ' ') {
+				continue;
+			}
+			switch (c) {
+			case '[':
+				// The tags after the moves belong to the next game
+				if (movetext) {
+					pushedBack = c;
+					return endGame();
+				}
+				readTag(game);
+				found = true;
+				break;
+			case '{':
+				skipUntil('}');
+				break;
+			case ';':
+			case '%':
+				skipUntil('\n');
+				break;
+			case '(':
+				skipVariation();
+				break;
+			case ')':
+			case '}':
+				break;
+			case '*':
+				game.setResult("*");
+				return endGame();
+			default:
+				movetext = true;
+				int length = readToken(c);
+				if (isResult(length)) {
+					game.setResult(new String(token, 0, length));
+					return endGame();
+				}
+				addSan(game, length);
+				found = true;
+				break;
+			}
+		}
+		return found && endGame();
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	private boolean endGame() {
+		games++;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private int read() throws IOException {
+		if (pushedBack != NONE) {
+			int c = pushedBack;
+			pushedBack = NONE;
+			return c;
+		}
+		if (!buffer.hasRemaining()) {
+			buffer.clear();
+			int read;
+			do {
+				read = channel.read(buffer);
+			} while (read == 0);
+			buffer.flip();
+			if (read < 0) {
+				return -1;
+			}
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	private void skipUntil(int end) throws IOException {
+		int c;
+		while ((c = read()) != -1 && c != end) {
+		}
+	}
+
+	// The variations can have their own variations and comments
+	private void skipVariation() throws IOException {
+		int depth = 1;
+		int c;
+		while (depth > 0 && (c = read()) != -1) {
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == '{') {
+				skipUntil('}');
+			} else if (c == ';') {
+				skipUntil('\n');
+			}
+		}
+	}
+
+	/*
+	 * A tag pair is [Name "Value"], the value can have \" and \\ escapes and is read
+	 * as UTF-8
+	*/
+	private void readTag(PgnGame game) throws IOException {
+		int c = read();
+		while (c != -1 && c <= ' ') {
+			c = read();
+		}
+		int length = 0;
+		while (c != -1 && c > ' ' && c != '"' && c != ']') {
+			length = appendToken(length, c);
+			c = read();
+		}
+		String name = new String(token, 0, length);
+
+		while (c != -1 && c != '"' && c != ']') {
+			c = read();
+		}
+		int valueLength = 0;
+		if (c == '"') {
+			while ((c = read()) != -1 && c != '"') {
+				if (c == '\\') {
+					c = read();
+				}
+				if (valueLength == tagValue.length) {
+					tagValue = Arrays.copyOf(tagValue, valueLength * 2);
+				}
+				tagValue[valueLength++] = (byte) c;
+			}
+			skipUntil(']');
+		}
+		if (length > 0) {
+			game.addTag(name, new String(tagValue, 0, valueLength, StandardCharsets.UTF_8));
+		}
+	}
+
+	// A token ends at a space or at the start of a comment, a variation or a tag
+	private int readToken(int first) throws IOException {
+		int length = appendToken(0, first);
+		int c;
+		while ((c = read()) != -1 && c > ' ' && "{}();[".indexOf(c) < 0) {
+			length = appendToken(length, c);
+		}
+		if (c != -1 && c > ' ') {
+			pushedBack = c;
+		}
+		return length;
+	}
+
+	private int appendToken(int length, int c) {
+		if (length == token.length) {
+			token = Arrays.copyOf(token, length * 2);
+		}
+		token[length] = (char) c;
+		return length + 1;
+	}
+
+	private boolean isResult(int length) {
+		return equalsToken(length, "1-0") || equalsToken(length, "0-1") || equalsToken(length, "1/2-1/2");
+	}
+
+	private boolean equalsToken(int length, String s) {
+		if (length != s.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (token[i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * The move number before a move ("12." or "12...") is skipped, even when the move
+	 * is written right after it, and so are the numeric annotation glyphs ($1)
+	*/
+	private void addSan(PgnGame game, int length) {
+		if (token[0] == '$') {
+			return;
+		}
+		int start = 0;
+		if (token[0] >= '1' && token[0] <= '9') {
+			while (start < length && token[start] >= '0' && token[start] <= '9') {
+				start++;
+			}
+			while (start < length && token[start] == '.') {
+				start++;
+			}
+		}
+		if (start < length) {
+			game.addSan(token, start, length - start);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package chess.pgn;
+
+import java.util.Collections;
+import java.util.List;
+
+import chess.ChessPiece;
+import chess.bitboard.PositionSnapshot;
+
+/*
+ * What the replay of a game gives: the final position, whether it ended in CHECK
+ * MATE and the pieces captured along the game, or the error that stopped the
+ * replay, in which case there is no position
+*/
+public class ReplayResult {
+
+	private final long gameNumber;
+	private final int plies;
+	private final String result;
+	private final PositionSnapshot finalPosition;
+	private final boolean checkMate;
+	private final List<ChessPiece> capturedPieces;
+	private final String error;
+
+	public ReplayResult(long gameNumber, int plies, String result, PositionSnapshot finalPosition, boolean checkMate,
+			List<ChessPiece> capturedPieces, String error) {
+		this.gameNumber = gameNumber;
+		this.plies = plies;
+		this.result = result;
+		this.finalPosition = finalPosition;
+		this.checkMate = checkMate;
+		this.capturedPieces = Collections.unmodifiableList(capturedPieces);
+		this.error = error;
+	}
+
+	public long getGameNumber() {
+		return gameNumber;
+	}
+
+	public int getPlies() {
+		return plies;
+	}
+
+	/*
+	 * The result written in the PGN (1-0, 0-1, 1/2-1/2 or *)
+	*/
+	public String getResult() {
+		return result;
+	}
+
+	public PositionSnapshot getFinalPosition() {
+		return finalPosition;
+	}
+
+	public boolean isCheckMate() {
+		return checkMate;
+	}
+
+	public List<ChessPiece> getCapturedPieces() {
+		return capturedPieces;
+	}
+
+	public boolean hasError() {
+		return error != null;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		if (error != null) {
+			return "Game " + gameNumber + ": " + error;
+		}
+		return "Game " + gameNumber + ": " + plies + " plies, " + result + (checkMate ? ", check mate" : "") + ", captured "
+				+ capturedPieces;
+	}
+}
@@ -1,9 +1,11 @@
 package chess.pieces;
 
 import boardGame.Board;
-import boardGame.Position;
 import chess.ChessPiece;
 import chess.Color;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
 
 public class Bishop extends ChessPiece {
 
@@ -15,63 +17,22 @@ public class Bishop extends ChessPiece {
 	public String toString() {
 		return "B";
 	}
+
+	@Override
+	public int getPieceType() {
+		return Bitboard.BISHOP;
+	}
 	
 	/*
 	 * Implementation of movement rules for the Bishop
 	 * 
 	 * The bishop and rook movements looks a lot alike, so that we can basically
-	 * use the rook movement logic modified to NW, NE, SW and SE
+	 * use the rook movement logic with the diagonal attack tables (NW, NE, SW and SE)
 	*/
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		// Moving northwest
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1, p.getColumn() - 1);
-		}
-		
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving northeast
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1, p.getColumn() + 1);;
-		}
-		
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving southeast
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() + 1);
-		}
-		
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving southwest
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() - 1);;
-		}
-
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		return mat;
+	public long possibleMovesMask() {
+		BitboardPosition bitboard = getBitboard();
+		return Attacks.bishop(getSquare(), bitboard.getOccupied())
+				& ~bitboard.getColorOccupancy(getColor().ordinal());
 	}
 }
@@ -1,10 +1,12 @@
 package chess.pieces;
 
 import boardGame.Board;
-import boardGame.Position;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
 
 public class King extends ChessPiece {
 	
@@ -21,103 +23,59 @@ public class King extends ChessPiece {
 		return "K";
 	}
 
+	@Override
+	public int getPieceType() {
+		return Bitboard.KING;
+	}
+
 	/*
 	 * Implementation of movement rules for the King
 	 *
-	 * In the case of the King, we must use an auxiliary method that will
-	 * determinate if the target position is null or if the color of the existing
-	 * piece is the same of the King, in case of false it is an opponent, so the
-	 * movement is allowed
+	 * The King moves one square in any direction, which comes from the precomputed
+	 * king table, and it can move to any of these squares that isn't occupied by
+	 * one of its own pieces, empty or with an opponent to capture
 	 */
-	private boolean canMove(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
-		return p == null || p.getColor() != getColor();
-	}
 	
 	//Test if the Rook is within the conditions of Castling
-	private boolean testRookCastling(Position position) {
-		ChessPiece p = (ChessPiece)getBoard().piece(position);
+	private boolean testRookCastling(int row, int column) {
+		if(column < 0 || column >= getBoard().getColumns()) {
+			return false;
+		}
+		ChessPiece p = (ChessPiece)getBoard().piece(row, column);
 		return p != null && p instanceof Rook && p.getColor() == getColor() && p.getMoveCount() == 0;
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// Moving upwards
-		p.setValues(position.getRow() - 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving downwards
-		p.setValues(position.getRow() + 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving left
-		p.setValues(position.getRow(), position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving right
-		p.setValues(position.getRow(), position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving northwest
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving northeast
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving southwest
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving southeast
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
+	public long possibleMovesMask() {
+		BitboardPosition bitboard = getBitboard();
+		int square = getSquare();
+		long moves = Attacks.king(square) & ~bitboard.getColorOccupancy(getColor().ordinal());
 		
 		//#Special Move (Castling) "ROQUE"
+		/*
+		 * Besides the empty squares, the King can't pass through a square attacked by
+		 * the opponent, which is found in the attacks kept by the bitboards
+		 */
 		if(getMoveCount() == 0 && !chessMatch.getCheck()) {
+			int row = position.getRow();
+			int column = position.getColumn();
+			int opponent = Bitboard.opponent(getColor().ordinal());
+			
 			//#King side Rook ("Small Castling")
-			Position posT1 = new Position(position.getRow(), position.getColumn() + 3);
-			if(testRookCastling(posT1)) {
-				Position p1 = new Position(position.getRow(), position.getColumn() + 1);
-				Position p2 = new Position(position.getRow(), position.getColumn() + 2);
-				if(getBoard().piece(p1) == null && getBoard().piece(p2) == null) {
-					mat[position.getRow()][position.getColumn() + 2] = true;
-				}
+			if(testRookCastling(row, column + 3)
+					&& bitboard.isEmpty(square + 1) && bitboard.isEmpty(square + 2)
+					&& !bitboard.isAttacked(square + 1, opponent)) {
+				moves |= Bitboard.bit(square + 2);
 			}
 			
 			//#Queen side Rook ("Great Castling")
-			Position posT2 = new Position(position.getRow(), position.getColumn() - 4);
-			if(testRookCastling(posT2)) {
-				Position p1 = new Position(position.getRow(), position.getColumn() - 1);
-				Position p2 = new Position(position.getRow(), position.getColumn() - 2);
-				Position p3 = new Position(position.getRow(), position.getColumn() - 3);
-				if(getBoard().piece(p1) == null && getBoard().piece(p2) == null && getBoard().piece(p3) == null) {
-					mat[position.getRow()][position.getColumn() - 2] = true;
-				}
+			if(testRookCastling(row, column - 4)
+					&& bitboard.isEmpty(square - 1) && bitboard.isEmpty(square - 2) && bitboard.isEmpty(square - 3)
+					&& !bitboard.isAttacked(square - 1, opponent)) {
+				moves |= Bitboard.bit(square - 2);
 			}
 		}
 
-		return mat;
+		return moves;
 	}
 }
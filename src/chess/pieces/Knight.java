@@ -1,9 +1,10 @@
 package chess.pieces;
 
 import boardGame.Board;
-import boardGame.Position;
 import chess.ChessPiece;
 import chess.Color;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
 
 public class Knight extends ChessPiece {
 
@@ -16,72 +17,20 @@ public class Knight extends ChessPiece {
 		return "N";
 	}
 
+	@Override
+	public int getPieceType() {
+		return Bitboard.KNIGHT;
+	}
+
 	/*
 	 * Implementation of movement rules for the Knight
 	 *
-	 * The knight and king movements looks a lot alike, so that we can basically
-	 * use the king movement logic modified to work in 2 per 1 (2 columns per 1
-	 * row or 2 row per 1 column)
+	 * The knight jumps 2 rows per 1 column (or 2 columns per 1 row) and is never
+	 * blocked, so its destinations only depend on its square and come from the
+	 * precomputed knight table, except the squares of our own pieces
 	 */
-	private boolean canMove(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
-		return p == null || p.getColor() != getColor();
-	}
-
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// Moving 1 row up and 2 columns left
-		p.setValues(position.getRow() - 1, position.getColumn() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 2 rows up and 1 column left
-		p.setValues(position.getRow() - 2, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 2 rows up and 1 column right
-		p.setValues(position.getRow() - 2, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 1 row up and 2 columns right
-		p.setValues(position.getRow() - 1, position.getColumn() + 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 1 row down and 2 columns right
-		p.setValues(position.getRow() + 1, position.getColumn() + 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 2 rows down and 1 column right
-		p.setValues(position.getRow() + 2, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 2 rows down and 1 column left
-		p.setValues(position.getRow() + 2, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// Moving 1 row down and 2 columns left
-		p.setValues(position.getRow() + 1, position.getColumn() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		return mat;
+	public long possibleMovesMask() {
+		return Attacks.knight(getSquare()) & ~getBitboard().getColorOccupancy(getColor().ordinal());
 	}
 }
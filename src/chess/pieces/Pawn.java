@@ -1,10 +1,12 @@
 package chess.pieces;
 
 import boardGame.Board;
-import boardGame.Position;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
 
 public class Pawn extends ChessPiece {
 	
@@ -20,106 +22,64 @@ public class Pawn extends ChessPiece {
 	public String toString() {
 		return "P";
 	}
+
+	@Override
+	public int getPieceType() {
+		return Bitboard.PAWN;
+	}
 	
 	/*
 	 * Implementation of movement rules for the Pawn
+	 * 
+	 * White pawns walk towards the row 0 of the board and black pawns towards the
+	 * row 7, which means 8 squares less or more in the bitboard, and both capture
+	 * with the precomputed pawn table of their color
 	 */
-
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+	public long possibleMovesMask() {
+		BitboardPosition bitboard = getBitboard();
+		int color = getColor().ordinal();
+		int square = getSquare();
+		int forward = (getColor() == Color.WHITE) ? -8 : 8;
+		long moves = 0L;
 
-		Position p = new Position(0, 0);
-
-		// White Pawn Movement Logic
-		if (getColor() == Color.WHITE) {
-			p.setValues(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			
-			//First move
-			p.setValues(position.getRow() - 2, position.getColumn());
-			Position p2 = new Position(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) &&
-				getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0 ) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			
-			//Diagonal left capture movement
-			p.setValues(position.getRow() - 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			
-			//Diagonal right capture movement
-			p.setValues(position.getRow() - 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			
-			//#Special move - En Passant (Whites)
-			if(position.getRow() == 3) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				//Check if is there a position on the left, if is there an opponent and if the
-				//opponent is with the property enPassantVulnerable as true
-				if(getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() - 1][left.getColumn()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				//Check if is there a position on the right, if is there an opponent and if the
-				//opponent is with the property enPassantVulnerable as true
-				if(getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() - 1][right.getColumn()] = true;
-				}
-			}
-			
-		} else {
-			// Black Pawn Movement Logic
-			p.setValues(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
+		int p = square + forward;
+		if (p >= 0 && p < 64 && bitboard.isEmpty(p)) {
+			moves |= Bitboard.bit(p);
 			
 			//First move
-			p.setValues(position.getRow() + 2, position.getColumn());
-			Position p2 = new Position(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) &&
-				getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0 ) {
-				mat[p.getRow()][p.getColumn()] = true;
+			int p2 = p + forward;
+			if (getMoveCount() == 0 && p2 >= 0 && p2 < 64 && bitboard.isEmpty(p2)) {
+				moves |= Bitboard.bit(p2);
 			}
-			
-			//Diagonal left capture movement
-			p.setValues(position.getRow() + 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			
-			//Diagonal right capture movement
-			p.setValues(position.getRow() + 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+		}
+		
+		//Diagonal capture movements
+		moves |= Attacks.pawn(color, square) & bitboard.getColorOccupancy(Bitboard.opponent(color));
+		
+		//#Special move - En Passant (Whites on row 3, Blacks on row 4)
+		int row = position.getRow();
+		int column = position.getColumn();
+		if ((getColor() == Color.WHITE && row == 3) || (getColor() == Color.BLACK && row == 4)) {
+			//Check if is there a position on the left or on the right with an opponent
+			//that has the property enPassantVulnerable as true
+			if (testEnPassant(row, column - 1)) {
+				moves |= Bitboard.bit(p - 1);
 			}
-			
-			//#Special move - En Passant (Blacks)
-			if(position.getRow() == 4) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				//Check if is there a position on the left, if is there an opponent and if the
-				//opponent is with the property enPassantVulnerable as true
-				if(getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() + 1][left.getColumn()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				//Check if is there a position on the right, if is there an opponent and if the
-				//opponent is with the property enPassantVulnerable as true
-				if(getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() + 1][right.getColumn()] = true;
-				}
+			if (testEnPassant(row, column + 1)) {
+				moves |= Bitboard.bit(p + 1);
 			}
-			
 		}
 
-		return mat;
+		return moves;
+	}
+	
+	private boolean testEnPassant(int row, int column) {
+		if (column < 0 || column >= getBoard().getColumns()) {
+			return false;
+		}
+		ChessPiece p = (ChessPiece)getBoard().piece(row, column);
+		return p != null && p.getColor() != getColor() && p == chessMatch.getEnPassantVulnerable();
 	}
 
 }
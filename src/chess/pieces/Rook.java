@@ -1,9 +1,11 @@
 package chess.pieces;
 
 import boardGame.Board;
-import boardGame.Position;
 import chess.ChessPiece;
 import chess.Color;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboard;
+import chess.bitboard.BitboardPosition;
 
 public class Rook extends ChessPiece {
 
@@ -15,68 +17,25 @@ public class Rook extends ChessPiece {
 	public String toString() {
 		return "R";
 	}
+
+	@Override
+	public int getPieceType() {
+		return Bitboard.ROOK;
+	}
 	
 	/*
 	 * Implementation of movement rules for the Rook
+	 * 
+	 * Instead of walking each direction square by square until finding a piece,
+	 * the rays are taken from the precomputed attack tables, indexed by the squares
+	 * occupied on the board. The attack set already stops at the first piece of
+	 * each direction, so removing the squares of our own pieces leaves exactly the
+	 * empty squares plus the opponent pieces that can be captured
 	*/
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		// Moving upwards
-		/*
-		 * First we check if the position above exists, then if there isn't a piece on
-		 * the next position, an allied piece in that case
-		 */
-		p.setValues(position.getRow()-1, position.getColumn());
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow()-1);
-		}
-		
-		/*
-		 * After it, we now must confirm if the next existing position is occupied by an 
-		 * opponent piece, the same logic will be applied to other directions
-		 */
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving left
-		p.setValues(position.getRow(), position.getColumn()-1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn()-1);
-		}
-		
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving right
-		p.setValues(position.getRow(), position.getColumn()+1);
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn()+1);
-		}
-		
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		// Moving downwards
-		p.setValues(position.getRow()+1, position.getColumn());
-		while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow()+1);
-		}
-
-		if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		return mat;
+	public long possibleMovesMask() {
+		BitboardPosition bitboard = getBitboard();
+		return Attacks.rook(getSquare(), bitboard.getOccupied())
+				& ~bitboard.getColorOccupancy(getColor().ordinal());
 	}
 }
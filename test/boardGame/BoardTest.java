@@ -0,0 +1,72 @@
+package boardGame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class BoardTest {
+
+	private static class TestPiece extends Piece {
+
+		TestPiece(Board board) {
+			super(board);
+		}
+
+		@Override
+		public boolean[][] possibleMoves() {
+			return new boolean[getBoard().getRows()][getBoard().getColumns()];
+		}
+
+		Position getPosition() {
+			return position;
+		}
+
+		Square getSquare() {
+			return square;
+		}
+	}
+
+	@Test
+	void mutablePositionsStillWork() {
+		Board board = new Board(Integer.valueOf(8), Integer.valueOf(8));
+		Integer rows = board.getRows();
+		assertEquals(8, rows);
+
+		Position position = new Position();
+		position.setValues(2, 3);
+		TestPiece piece = new TestPiece(board);
+		board.placePiece(piece, position);
+
+		// The piece keeps its own position, changing the argument doesn't move it
+		position.setRow(5);
+		position.setColumn(6);
+		assertEquals(Integer.valueOf(2), piece.getPosition().getRow());
+		assertEquals(Integer.valueOf(3), piece.getPosition().getColumn());
+		assertSame(piece, board.piece(new Position(2, 3)));
+		assertNull(board.piece(position));
+
+		assertSame(piece, board.removePiece(new Position(2, 3)));
+		assertNull(piece.getPosition());
+		assertNull(piece.getSquare());
+	}
+
+	@Test
+	void squaresAreShared() {
+		Board board = new Board(8, 8);
+		assertSame(Square.valueOf(4, 5), board.square(board.index(4, 5)));
+		assertSame(Square.valueOf(new Position(4, 5)), Square.valueOf(4, 5));
+
+		TestPiece piece = new TestPiece(board);
+		board.placePiece(piece, Square.valueOf(4, 5));
+		assertSame(board.square(37), piece.getSquare());
+		assertEquals(Integer.valueOf(4), piece.getPosition().getRow());
+		assertSame(piece, board.piece(37));
+		assertSame(piece, board.removePiece(Square.valueOf(4, 5)));
+
+		assertThrows(BoardException.class, () -> board.placePiece(piece, Square.valueOf(8, 0)));
+		assertThrows(BoardException.class, () -> new Board(0, 8));
+	}
+}
@@ -0,0 +1,32 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ChessMatchPerftTest {
+
+	@Test
+	void initialSetup() {
+		assertEquals(8902, ChessMatchPerft.perft(new ChessMatch(), 3));
+	}
+
+	@Test
+	void kiwipete() {
+		ChessMatch chessMatch = ChessMatch.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		assertEquals(97862, ChessMatchPerft.perft(chessMatch, 3));
+		// The original match is not changed by the walk
+		assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", chessMatch.toFen());
+	}
+
+	@Test
+	void promotions() {
+		ChessMatch chessMatch = ChessMatch.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+		Map<String, Long> divide = new ChessMatchPerft(chessMatch, 1).divide(1);
+		assertEquals(44, divide.size());
+		assertEquals(1L, divide.get("d7c8n"));
+		assertEquals(1L, divide.get("d7c8q"));
+	}
+}
@@ -0,0 +1,218 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.bitboard.Bitboard;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Rook;
+
+class ChessMatchUndoTest {
+
+	// The legal move written as "e2e4" or "e7e8n"
+	private static int move(ChessMatch chessMatch, String move) {
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateLegalMoves(chessMatch.getBitboard(), buffer);
+		for (int i = 0; i < count; i++) {
+			if (Move.toString(buffer[i]).equals(move)) {
+				return buffer[i];
+			}
+		}
+		throw new AssertionError(move + " is not legal in " + chessMatch.toFen());
+	}
+
+	private static void play(ChessMatch chessMatch, String... moves) {
+		for (String move : moves) {
+			chessMatch.performChessMove(move(chessMatch, move));
+		}
+	}
+
+	private static ChessPiece piece(ChessMatch chessMatch, char column, int row) {
+		return chessMatch.getPieces()[8 - row][column - 'a'];
+	}
+
+	@Test
+	void undoAndRedoCastling() {
+		ChessMatch chessMatch = ChessMatch.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		String before = chessMatch.toFen();
+		long key = chessMatch.getPositionKey();
+
+		play(chessMatch, "e1g1");
+		assertTrue(piece(chessMatch, 'f', 1) instanceof Rook);
+		String afterWhite = chessMatch.toFen();
+		play(chessMatch, "e8c8");
+		assertTrue(piece(chessMatch, 'd', 8) instanceof Rook);
+		String afterBlack = chessMatch.toFen();
+		assertEquals("2kr3r/8/8/8/8/8/8/R4RK1 w - - 0 2", afterBlack);
+
+		assertEquals(Move.QUEEN_CASTLE, Move.flags(chessMatch.undoMove()));
+		assertEquals(afterWhite, chessMatch.toFen());
+		assertEquals(Move.KING_CASTLE, Move.flags(chessMatch.undoMove()));
+		assertEquals(before, chessMatch.toFen());
+		assertEquals(key, chessMatch.getPositionKey());
+		assertEquals(0, piece(chessMatch, 'h', 1).getMoveCount());
+		assertEquals(0, chessMatch.getKing(Color.WHITE).getMoveCount());
+
+		chessMatch.redoMove();
+		chessMatch.redoMove();
+		assertEquals(afterBlack, chessMatch.toFen());
+		assertFalse(chessMatch.canRedo());
+	}
+
+	@Test
+	void undoAndRedoEnPassant() {
+		ChessMatch chessMatch = ChessMatch.fromFen("4k3/8/8/8/1p6/8/P7/4K3 w - - 0 1");
+		play(chessMatch, "a2a4");
+		ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+		assertTrue(vulnerable instanceof Pawn);
+		String beforeCapture = chessMatch.toFen();
+		long key = chessMatch.getPositionKey();
+
+		play(chessMatch, "b4a3");
+		assertNull(piece(chessMatch, 'a', 4));
+		assertEquals(1, chessMatch.getCapturedPieces().size());
+
+		assertTrue(Move.isEnPassant(chessMatch.undoMove()));
+		assertEquals(beforeCapture, chessMatch.toFen());
+		assertEquals(key, chessMatch.getPositionKey());
+		assertSame(vulnerable, chessMatch.getEnPassantVulnerable());
+		assertSame(vulnerable, piece(chessMatch, 'a', 4));
+		assertTrue(chessMatch.getCapturedPieces().isEmpty());
+
+		chessMatch.redoMove();
+		assertNull(piece(chessMatch, 'a', 4));
+		assertTrue(piece(chessMatch, 'a', 3) instanceof Pawn);
+	}
+
+	@Test
+	void undoAndRedoUnderPromotion() {
+		ChessMatch chessMatch = ChessMatch.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1");
+		String before = chessMatch.toFen();
+		ChessPiece pawn = piece(chessMatch, 'e', 7);
+
+		play(chessMatch, "e7e8q");
+		chessMatch.replacePromotedPiece("N");
+		assertTrue(piece(chessMatch, 'e', 8) instanceof Knight);
+		assertEquals("e7e8n", Move.toString(chessMatch.getMoveHistory()[0]));
+		String after = chessMatch.toFen();
+
+		chessMatch.undoMove();
+		assertSame(pawn, piece(chessMatch, 'e', 7));
+		assertEquals(before, chessMatch.toFen());
+
+		chessMatch.redoMove();
+		assertTrue(piece(chessMatch, 'e', 8) instanceof Knight);
+		assertEquals(after, chessMatch.toFen());
+	}
+
+	@Test
+	void underPromotionTakesBackTheCheckMate() {
+		ChessMatch chessMatch = ChessMatch.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1");
+		play(chessMatch, "e7e8q");
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Color.WHITE, chessMatch.getCurrentPlayer());
+		assertEquals(1, chessMatch.getTurn());
+
+		chessMatch.replacePromotedPiece("N");
+		assertFalse(chessMatch.getCheckMate());
+		assertFalse(chessMatch.getCheck());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+		assertEquals(2, chessMatch.getTurn());
+		play(chessMatch, "a8b8");
+	}
+
+	@Test
+	void promotionToAnotherPieceCanGiveTheCheckMate() {
+		ChessMatch chessMatch = ChessMatch.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1");
+		chessMatch.performChessMove(Move.ofPromotion(Bitboard.square(1, 4), Bitboard.square(0, 4), Bitboard.KNIGHT, false));
+		assertFalse(chessMatch.getCheckMate());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+
+		chessMatch.replacePromotedPiece("R");
+		assertTrue(chessMatch.getCheck());
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Color.WHITE, chessMatch.getCurrentPlayer());
+		assertEquals(1, chessMatch.getTurn());
+
+		// The record has the Rook, so the undo and the redo agree with the match
+		chessMatch.undoMove();
+		assertFalse(chessMatch.getCheckMate());
+		assertEquals(Color.WHITE, chessMatch.getCurrentPlayer());
+		chessMatch.redoMove();
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals("e7e8r", Move.toString(chessMatch.getMoveHistory()[0]));
+	}
+
+	@Test
+	void undoTheCheckMate() {
+		ChessMatch chessMatch = new ChessMatch();
+		play(chessMatch, "f2f3", "e7e5", "g2g4");
+		String before = chessMatch.toFen();
+		play(chessMatch, "d8h4");
+		assertTrue(chessMatch.getCheckMate());
+
+		chessMatch.undoMove();
+		assertFalse(chessMatch.getCheckMate());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+		assertEquals(4, chessMatch.getTurn());
+		assertEquals(before, chessMatch.toFen());
+
+		chessMatch.redoMove();
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+	}
+
+	@Test
+	void undoAndRedoAWholeGame() {
+		Random random = new Random(42);
+		ChessMatch chessMatch = new ChessMatch();
+		List<String> fens = new ArrayList<>();
+		List<Long> keys = new ArrayList<>();
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		while (!chessMatch.getCheckMate() && fens.size() < 300) {
+			int count = MoveGenerator.generateLegalMoves(chessMatch.getBitboard(), buffer);
+			if (count == 0) {
+				break;
+			}
+			fens.add(chessMatch.toFen());
+			keys.add(chessMatch.getPositionKey());
+			chessMatch.performChessMove(buffer[random.nextInt(count)]);
+		}
+		String last = chessMatch.toFen();
+
+		for (int i = fens.size() - 1; i >= 0; i--) {
+			chessMatch.undoMove();
+			assertEquals(fens.get(i), chessMatch.toFen());
+			assertEquals(keys.get(i).longValue(), chessMatch.getPositionKey());
+		}
+		assertFalse(chessMatch.canUndo());
+		while (chessMatch.canRedo()) {
+			chessMatch.redoMove();
+		}
+		assertEquals(last, chessMatch.toFen());
+	}
+
+	@Test
+	void nothingToUndoOrRedo() {
+		ChessMatch chessMatch = new ChessMatch();
+		assertThrows(IllegalStateException.class, chessMatch::undoMove);
+		assertThrows(IllegalStateException.class, chessMatch::redoMove);
+		play(chessMatch, "e2e4");
+		chessMatch.undoMove();
+		play(chessMatch, "d2d4");
+		assertFalse(chessMatch.canRedo());
+	}
+}
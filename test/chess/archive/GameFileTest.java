@@ -0,0 +1,133 @@
+package chess.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessMatch;
+import chess.bitboard.MoveGenerator;
+
+class GameFileTest {
+
+	private static final String[] FENS = { null, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1" };
+
+	@TempDir
+	Path directory;
+
+	// A game of random legal moves, from the FEN or the initial setup
+	private static int[] randomGame(Random random, String fen) {
+		ChessMatch chessMatch = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		int plies = random.nextInt(150);
+		int[] moves = new int[plies];
+		for (int ply = 0; ply < plies; ply++) {
+			int count = chessMatch.getCheckMate() ? 0 : MoveGenerator.generateLegalMoves(chessMatch.getBitboard(), buffer);
+			if (count == 0) {
+				return Arrays.copyOf(moves, ply);
+			}
+			moves[ply] = buffer[random.nextInt(count)];
+			chessMatch.performChessMove(moves[ply]);
+		}
+		return moves;
+	}
+
+	@Test
+	void roundTripAcrossSegments() throws IOException {
+		Path path = directory.resolve("games.bin");
+		Random random = new Random(7);
+		List<int[]> games = new ArrayList<>();
+		List<String> fens = new ArrayList<>();
+		try (GameFileWriter writer = new GameFileWriter(path)) {
+			writer.write(new int[0], 0, GameFile.DRAW, null);
+			games.add(new int[0]);
+			fens.add(null);
+			for (int i = 1; i < 200; i++) {
+				String fen = FENS[i % FENS.length];
+				int[] moves = randomGame(random, fen);
+				writer.write(moves, moves.length, i % 4, fen);
+				games.add(moves);
+				fens.add(fen);
+			}
+			assertEquals(200, writer.getGameCount());
+		}
+
+		// 64 bytes segments, the numbers of the header, the records and the index cross them
+		for (int segmentBits : new int[] { 6, 7, MappedFile.SEGMENT_BITS }) {
+			try (GameFileReader reader = new GameFileReader(path, segmentBits)) {
+				assertEquals(games.size(), reader.getGameCount());
+				// Read backwards, no game needs the ones before it
+				for (int game = games.size() - 1; game >= 0; game--) {
+					int[] expected = games.get(game);
+					assertEquals(expected.length, reader.getPlyCount(game));
+					assertEquals((game == 0) ? GameFile.DRAW : game % 4, reader.getResult(game));
+					assertEquals(fens.get(game), reader.getFen(game));
+
+					int[] moves = new int[expected.length];
+					assertEquals(expected.length, reader.getMoves(game, moves));
+					assertArrayEquals(expected, moves);
+					if (expected.length > 0) {
+						assertEquals(expected[expected.length - 1], reader.getMove(game, expected.length - 1));
+					}
+
+					ChessMatch chessMatch = (fens.get(game) != null) ? ChessMatch.fromFen(fens.get(game)) : new ChessMatch();
+					for (int move : expected) {
+						chessMatch.performChessMove(move);
+					}
+					assertEquals(chessMatch.toFen(), reader.replay(game).toFen());
+				}
+				assertThrows(IndexOutOfBoundsException.class, () -> reader.getPlyCount(games.size()));
+				assertThrows(IndexOutOfBoundsException.class, () -> reader.getMove(0, 0));
+			}
+		}
+	}
+
+	@Test
+	void resultStrings() {
+		assertEquals(GameFile.WHITE_WINS, GameFile.result("1-0"));
+		assertEquals(GameFile.BLACK_WINS, GameFile.result("0-1"));
+		assertEquals(GameFile.DRAW, GameFile.result("1/2-1/2"));
+		assertEquals(GameFile.UNKNOWN, GameFile.result("*"));
+		assertEquals("1/2-1/2", GameFile.resultToString(GameFile.DRAW));
+	}
+
+	@Test
+	void invalidGames() throws IOException {
+		try (GameFileWriter writer = new GameFileWriter(directory.resolve("invalid.bin"))) {
+			assertThrows(IllegalArgumentException.class, () -> writer.write(new int[0], -1, GameFile.UNKNOWN, null));
+			assertThrows(IllegalArgumentException.class, () -> writer.write(new int[0], 0, 9, null));
+			assertThrows(IllegalArgumentException.class,
+					() -> writer.write(new int[GameFile.MAX_PLIES + 1], GameFile.MAX_PLIES + 1, GameFile.UNKNOWN, null));
+		}
+	}
+
+	@Test
+	void notAGameFile() throws IOException {
+		Path text = directory.resolve("games.pgn");
+		Files.writeString(text, "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 *\n");
+		assertThrows(IOException.class, () -> new GameFileReader(text));
+
+		Path empty = Files.createFile(directory.resolve("empty.bin"));
+		assertThrows(IOException.class, () -> new GameFileReader(empty));
+	}
+
+	@Test
+	void emptyFile() throws IOException {
+		Path path = directory.resolve("none.bin");
+		new GameFileWriter(path).close();
+		try (GameFileReader reader = new GameFileReader(path)) {
+			assertEquals(0, reader.getGameCount());
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package chess.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import application.GameFileRunner;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+
+class PositionIndexTest {
+
+	@TempDir
+	Path directory;
+
+	/*
+	 * Adds the entries of a few hundred keys, some negative so the unsigned order is
+	 * tested, in the order of the game and the ply, and keeps them in the map
+	*/
+	private static void addEntries(PositionIndexWriter writer, Map<Long, List<Long>> expected, int firstGame, int games)
+			throws IOException {
+		Random random = new Random(firstGame);
+		long[] keys = new long[300];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = random.nextLong();
+		}
+		for (int game = firstGame; game < firstGame + games; game++) {
+			for (int ply = 0; ply < 30; ply++) {
+				long key = keys[random.nextInt(keys.length)];
+				writer.add(key, game, ply);
+				expected.computeIfAbsent(key, k -> new ArrayList<>()).add(PositionIndex.entry(game, ply));
+			}
+		}
+	}
+
+	private static void assertLookups(Path path, int segmentBits, Map<Long, List<Long>> expected) throws IOException {
+		try (PositionIndexReader reader = new PositionIndexReader(path, segmentBits)) {
+			long total = 0;
+			for (Map.Entry<Long, List<Long>> e : expected.entrySet()) {
+				long[] entries = e.getValue().stream().mapToLong(Long::longValue).toArray();
+				assertArrayEquals(entries, reader.lookup(e.getKey()));
+				assertEquals(entries.length, reader.count(e.getKey()));
+
+				// A short buffer takes the first entries, the count is still the total
+				long[] buffer = new long[1];
+				assertEquals(entries.length, reader.lookup(e.getKey(), buffer));
+				assertEquals(entries[0], buffer[0]);
+				total += entries.length;
+			}
+			assertEquals(total, reader.getEntryCount());
+			assertEquals(0, reader.count(0x0123456789ABCDEFL));
+			assertEquals(0, reader.lookup(-1L).length);
+		}
+	}
+
+	private static int runCount(Path path) throws IOException {
+		try (PositionIndexReader reader = new PositionIndexReader(path)) {
+			return reader.getRunCount();
+		}
+	}
+
+	@Test
+	void lookupsAcrossRunsAndCompact() throws IOException {
+		Path path = directory.resolve("positions.idx");
+		Map<Long, List<Long>> expected = new TreeMap<>();
+		try (PositionIndexWriter writer = new PositionIndexWriter(path, 100)) {
+			addEntries(writer, expected, 0, 100);
+		}
+		assertEquals(30, runCount(path));
+		assertLookups(path, 6, expected);
+		assertLookups(path, MappedFile.SEGMENT_BITS, expected);
+
+		Path compacted = directory.resolve("compacted.idx");
+		PositionIndexWriter.compact(path, compacted);
+		assertEquals(1, runCount(compacted));
+		assertLookups(compacted, 6, expected);
+		assertLookups(compacted, MappedFile.SEGMENT_BITS, expected);
+
+		PositionIndexWriter.compact(path);
+		assertEquals(1, runCount(path));
+		assertLookups(path, 7, expected);
+		assertEquals(Files.size(compacted), Files.size(path));
+	}
+
+	@Test
+	void reopenAppendsAndDropsTheIncompleteRun() throws IOException {
+		Path path = directory.resolve("positions.idx");
+		Map<Long, List<Long>> expected = new TreeMap<>();
+		try (PositionIndexWriter writer = new PositionIndexWriter(path, 100)) {
+			addEntries(writer, expected, 0, 10);
+		}
+		assertEquals(3, runCount(path));
+		long complete = Files.size(path);
+
+		// A run cut by a crash, the readers skip it and the next writer removes it
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			ByteBuffer header = ByteBuffer.allocate(PositionIndex.RUN_HEADER_SIZE + 8);
+			header.putInt(PositionIndex.MAGIC).putInt(0).putLong(5).flip();
+			channel.write(header);
+		}
+		assertEquals(3, runCount(path));
+		assertLookups(path, 6, expected);
+
+		try (PositionIndexWriter writer = new PositionIndexWriter(path, 100)) {
+			assertEquals(complete, Files.size(path));
+			addEntries(writer, expected, 10, 10);
+		}
+		assertEquals(6, runCount(path));
+		assertLookups(path, 6, expected);
+
+		PositionIndexWriter.compact(path);
+		assertLookups(path, 6, expected);
+	}
+
+	private static Path writeGames(Path path, int games) throws IOException {
+		int[] moves = { Move.of(52, 36), Move.of(12, 28) };
+		try (GameFileWriter writer = new GameFileWriter(path)) {
+			for (int game = 0; game < games; game++) {
+				writer.write(moves, game % 3, GameFile.UNKNOWN, null);
+			}
+		}
+		return path;
+	}
+
+	@Test
+	void gamesOfSeveralFiles() throws IOException {
+		Path first = writeGames(directory.resolve("first.bin"), 5);
+		Path second = writeGames(directory.resolve("second.bin"), 4);
+		Path path = directory.resolve("positions.idx");
+		try (GameFileReader games = new GameFileReader(first); PositionIndexWriter writer = new PositionIndexWriter(path)) {
+			writer.addGames(games, 0);
+			assertThrows(IllegalArgumentException.class, () -> writer.addGames(games, -1));
+			assertThrows(IllegalArgumentException.class, () -> writer.addGames(games, Integer.MAX_VALUE - 2));
+		}
+		try (GameFileReader games = new GameFileReader(second); PositionIndexWriter writer = new PositionIndexWriter(path)) {
+			writer.addGames(games, 5);
+		}
+
+		long initial = Fen.parse(Fen.INITIAL_POSITION).getKey();
+		try (PositionIndexReader reader = new PositionIndexReader(path)) {
+			long[] entries = reader.lookup(initial);
+			assertEquals(9, entries.length);
+			for (int game = 0; game < entries.length; game++) {
+				assertEquals(PositionIndex.entry(game, 0), entries[game]);
+			}
+		}
+	}
+
+	/*
+	 * Running the index command again builds the same index, instead of adding the
+	 * games a second time
+	*/
+	@Test
+	void reindexing() throws IOException {
+		Path first = writeGames(directory.resolve("first.bin"), 5);
+		Path second = writeGames(directory.resolve("second.bin"), 4);
+		Path path = directory.resolve("positions.idx");
+		String[] args = { "index", first.toString(), second.toString(), path.toString() };
+		GameFileRunner.main(args);
+		byte[] built = Files.readAllBytes(path);
+		GameFileRunner.main(args);
+		assertArrayEquals(built, Files.readAllBytes(path));
+
+		BitboardPosition position = Fen.parse(Fen.INITIAL_POSITION);
+		position.makeMove(Move.of(52, 36));
+		try (PositionIndexReader reader = new PositionIndexReader(path)) {
+			// The games have 0, 1, 2, 0, 1 and 0, 1, 2, 0 plies, and a position more each
+			assertEquals(16, reader.getEntryCount());
+			assertEquals(1, reader.getRunCount());
+			assertArrayEquals(new long[] { PositionIndex.entry(1, 1), PositionIndex.entry(2, 1), PositionIndex.entry(4, 1),
+					PositionIndex.entry(6, 1), PositionIndex.entry(7, 1) }, reader.lookup(position.getKey()));
+		}
+	}
+
+	@Test
+	void notAPositionIndex() throws IOException {
+		Path text = directory.resolve("positions.txt");
+		Files.writeString(text, "not a position index at all");
+		assertThrows(IOException.class, () -> new PositionIndexReader(text));
+		assertThrows(IOException.class, () -> new PositionIndexWriter(text));
+	}
+
+	@Test
+	void invalidEntries() throws IOException {
+		try (PositionIndexWriter writer = new PositionIndexWriter(directory.resolve("positions.idx"))) {
+			assertThrows(IllegalArgumentException.class, () -> writer.add(1, -1, 0));
+			assertThrows(IllegalArgumentException.class, () -> writer.add(1, 0, PositionIndex.MAX_PLY + 1));
+		}
+	}
+
+	/*
+	 * The longest game of a game file, the knights going back and forth, still has
+	 * a ply for the position after its last move
+	*/
+	@Test
+	void longestGame() throws IOException {
+		int[] cycle = { Move.of(62, 45), Move.of(6, 21), Move.of(45, 62), Move.of(21, 6) };
+		int[] moves = new int[GameFile.MAX_PLIES];
+		for (int ply = 0; ply < moves.length; ply++) {
+			moves[ply] = cycle[ply % cycle.length];
+		}
+
+		Path games = directory.resolve("games.bin");
+		try (GameFileWriter writer = new GameFileWriter(games)) {
+			writer.write(moves, moves.length, GameFile.DRAW, null);
+			assertThrows(IllegalArgumentException.class,
+					() -> writer.write(new int[GameFile.MAX_PLIES + 1], GameFile.MAX_PLIES + 1, GameFile.DRAW, null));
+		}
+
+		Path path = directory.resolve("positions.idx");
+		try (GameFileReader reader = new GameFileReader(games); PositionIndexWriter writer = new PositionIndexWriter(path)) {
+			writer.addGames(reader);
+		}
+
+		BitboardPosition position = Fen.parse(Fen.INITIAL_POSITION);
+		for (int ply = 0; ply < moves.length % cycle.length; ply++) {
+			position.makeMove(moves[ply]);
+		}
+		try (PositionIndexReader reader = new PositionIndexReader(path)) {
+			assertEquals(moves.length + 1, reader.getEntryCount());
+			long[] entries = reader.lookup(position.getKey());
+			long last = entries[entries.length - 1];
+			assertEquals(0, PositionIndex.game(last));
+			assertEquals(GameFile.MAX_PLIES, PositionIndex.ply(last));
+		}
+	}
+}
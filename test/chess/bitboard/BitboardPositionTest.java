@@ -0,0 +1,60 @@
+package chess.bitboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BitboardPositionTest {
+
+	// The attacks of a color computed again from every piece, as a FEN load does
+	private static long fullAttacks(BitboardPosition position, int color) {
+		BitboardPosition copy = new BitboardPosition(position);
+		copy.refreshAttacks();
+		return copy.getAttacks(color);
+	}
+
+	private static void assertAttacks(BitboardPosition position) {
+		for (int color = Bitboard.BLACK; color <= Bitboard.WHITE; color++) {
+			assertEquals(fullAttacks(position, color), position.getAttacks(color));
+			int king = position.getKingSquare(color);
+			boolean attacked = (position.attackersTo(king, position.getOccupied())
+					& position.getColorOccupancy(Bitboard.opponent(color))) != 0;
+			assertEquals(attacked, position.isInCheck(color));
+		}
+	}
+
+	/*
+	 * The attack maps updated move by move, and back by the unmakeMove(), are the
+	 * same as the ones computed from all the pieces
+	*/
+	@Test
+	void incrementalAttacks() {
+		Random random = new Random(11);
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		for (String fen : new String[] { Fen.INITIAL_POSITION,
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1" }) {
+			for (int game = 0; game < 20; game++) {
+				BitboardPosition position = Fen.parse(fen);
+				int[] moves = new int[200];
+				int plies = 0;
+				while (plies < moves.length) {
+					int count = MoveGenerator.generateLegalMoves(position, buffer);
+					if (count == 0) {
+						break;
+					}
+					moves[plies] = buffer[random.nextInt(count)];
+					position.makeMove(moves[plies++]);
+					assertAttacks(position);
+				}
+				while (plies > 0) {
+					position.unmakeMove(moves[--plies]);
+					assertAttacks(position);
+				}
+				assertEquals(Fen.parse(fen).getKey(), position.getKey());
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package chess.bitboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import chess.ChessMatch;
+import chess.ChessMatchPerft;
+
+class FenTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			Fen.INITIAL_POSITION,
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+			"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+			"rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3" })
+	void roundTrip(String fen) {
+		BitboardPosition position = Fen.parse(fen);
+		String[] fields = fen.split(" ");
+		String written = Fen.toFen(position, Integer.parseInt(fields[4]), Fen.fullMoveNumber(fen));
+		assertEquals(fen, written);
+		assertEquals(position.getKey(), Fen.parse(written).getKey());
+	}
+
+	@Test
+	void matchRoundTrip() {
+		String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+		ChessMatch chessMatch = ChessMatch.fromFen(fen);
+		assertEquals(fen, chessMatch.toFen());
+		assertEquals(Fen.parse(fen).getKey(), chessMatch.getPositionKey());
+	}
+
+	@Test
+	void enPassantSquareWithoutCaptureIsDropped() {
+		BitboardPosition position = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+		assertEquals(Bitboard.EMPTY, position.getEnPassantSquare());
+		assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", Fen.toFen(position, 0, 1));
+	}
+
+	@Test
+	void enPassantSquareWithoutPawnInFrontIsDropped() {
+		// A pawn attacks e4, but no black pawn has just jumped over it
+		String fen = "4k3/8/8/8/8/3P4/8/4K3 w - e4 0 1";
+		BitboardPosition position = Fen.parse(fen);
+		assertEquals(Bitboard.EMPTY, position.getEnPassantSquare());
+		assertEquals(Fen.parse("4k3/8/8/8/8/3P4/8/4K3 w - - 0 1").getKey(), position.getKey());
+		assertEquals(ChessMatch.fromFen(fen).getPositionKey(), position.getKey());
+		assertEquals(ChessMatchPerft.perft(ChessMatch.fromFen(fen), 2), Perft.perft(position, 2));
+
+		// On the right rank, but the pawn in front is White's own
+		assertEquals(Bitboard.EMPTY, Fen.parse("4k3/8/8/3PP3/8/8/8/4K3 w - e6 0 1").getEnPassantSquare());
+		// A black pawn in front, but it is Black to move
+		assertEquals(Bitboard.EMPTY, Fen.parse("4k3/8/8/8/3pP3/8/8/4K3 b - e6 0 1").getEnPassantSquare());
+		assertEquals(Bitboard.square(2, 4), Fen.parse("4k3/8/8/3Pp3/8/8/8/4K3 w - e6 0 1").getEnPassantSquare());
+	}
+
+	@Test
+	void castlingRightsWithoutKingAndRookAreDropped() {
+		BitboardPosition noRook = Fen.parse("4k3/8/8/8/8/8/8/4K3 w K - 0 1");
+		assertEquals(0, noRook.getCastlingRights());
+		assertEquals(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getKey(), noRook.getKey());
+		assertEquals(25, Perft.perft(noRook, 2));
+
+		BitboardPosition kingMoved = Fen.parse("4k3/8/8/8/8/8/8/3K3R w K - 0 1");
+		assertEquals(0, kingMoved.getCastlingRights());
+		assertEquals(Fen.parse("4k3/8/8/8/8/8/8/3K3R w - - 0 1").getKey(), kingMoved.getKey());
+		assertEquals(Perft.perft(Fen.parse("4k3/8/8/8/8/8/8/3K3R w - - 0 1"), 3), Perft.perft(kingMoved, 3));
+
+		// Only the side with its Rook in the corner keeps the right
+		BitboardPosition oneSide = Fen.parse("r3k3/8/8/8/8/8/8/R3K1R1 w KQq - 0 1");
+		assertEquals(BitboardPosition.WHITE_QUEEN_SIDE | BitboardPosition.BLACK_QUEEN_SIDE, oneSide.getCastlingRights());
+	}
+
+	@Test
+	void matchAndBitboardAgreeOnCastlingRights() {
+		String fen = "4k3/8/8/8/8/8/8/3K3R w K - 0 1";
+		ChessMatch chessMatch = ChessMatch.fromFen(fen);
+		assertEquals(Fen.parse(fen).getKey(), chessMatch.getPositionKey());
+		assertEquals("4k3/8/8/8/8/8/8/3K3R w - - 0 1", chessMatch.toFen());
+	}
+
+	@Test
+	void castlingIsNotGeneratedWithoutTheKingOnItsSquare() {
+		BitboardPosition position = Fen.parse("4k3/8/8/8/8/8/8/3K3R w - - 0 1");
+		position.setCastlingRights(BitboardPosition.WHITE_KING_SIDE);
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateLegalMoves(position, moves);
+		for (int i = 0; i < count; i++) {
+			assertEquals(false, Move.isCastling(moves[i]), Move.toString(moves[i]));
+		}
+	}
+
+	@Test
+	void fullMoveNumber() {
+		assertEquals(8, Fen.fullMoveNumber("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"));
+		assertEquals(1, Fen.fullMoveNumber("4k3/8/8/8/8/8/8/4K3 w - -"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"4k3/8/8/8/8/8/8/4K3",
+			"4k3/8/8/8/8/8/8/4K3 x - - 0 1",
+			"4k3/8/8/8/8/8/8/4K3 w X - 0 1",
+			"4k3/8/8/8/8/8/8/4K3 w - z9 0 1",
+			"4k3/8/8/8/8/8/8/4K3 w - e 0 1",
+			"4k3/8/8/8/8/8/8/8 w - - 0 1",
+			"4k3/8/8/8/8/8/4K3 w - - 0 1",
+			"4k3/9/8/8/8/8/8/4K3 w - - 0 1",
+			"4k3/8/8/8/8/8/8/4KX2 w - - 0 1" })
+	void invalidFen(String fen) {
+		assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen));
+	}
+}
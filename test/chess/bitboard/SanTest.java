@@ -0,0 +1,81 @@
+package chess.bitboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SanTest {
+
+	private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+	private String decode(String fen, String san) {
+		int move = San.decode(Fen.parse(fen), san, buffer);
+		return (move == MoveGenerator.NO_MOVE) ? null : Move.toString(move);
+	}
+
+	// Every legal move written by the toSan() is decoded back to the same move
+	private void assertRoundTrip(String fen) {
+		BitboardPosition position = Fen.parse(fen);
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateLegalMoves(position, moves);
+		for (int i = 0; i < count; i++) {
+			String san = San.toSan(position, moves[i], buffer);
+			assertEquals(moves[i], San.decode(position, san, buffer), san);
+		}
+	}
+
+	@Test
+	void columnDisambiguation() {
+		String fen = "4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1";
+		assertEquals("b1d2", decode(fen, "Nbd2"));
+		assertEquals("f1d2", decode(fen, "Nfd2"));
+		assertEquals(null, decode(fen, "Nd2"));
+		assertEquals("Nbd2", San.toSan(Fen.parse(fen), Move.of(57, 51), buffer));
+		assertRoundTrip(fen);
+	}
+
+	@Test
+	void rowDisambiguation() {
+		String fen = "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1";
+		assertEquals("a1a3", decode(fen, "R1a3"));
+		assertEquals("a5a3", decode(fen, "R5a3"));
+		assertEquals(null, decode(fen, "Ra3"));
+		assertEquals("R1a3", San.toSan(Fen.parse(fen), Move.of(56, 40), buffer));
+		assertRoundTrip(fen);
+	}
+
+	@Test
+	void columnAndRowDisambiguation() {
+		String fen = "4k3/8/8/8/8/Q1Q5/8/Q3K3 w - - 0 1";
+		BitboardPosition position = Fen.parse(fen);
+		assertEquals("Q1b2", San.toSan(position, Move.of(56, 49), buffer));
+		assertEquals("Qa3b2", San.toSan(position, Move.of(40, 49), buffer));
+		assertEquals("Qcb2", San.toSan(position, Move.of(42, 49), buffer));
+		assertEquals("a3b2", decode(fen, "Qa3xb2"));
+		assertRoundTrip(fen);
+	}
+
+	@Test
+	void castlingAndPromotion() {
+		String fen = "r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1";
+		assertEquals("e1g1", decode(fen, "O-O"));
+		assertEquals("e1c1", decode(fen, "0-0-0"));
+		assertEquals("b7b8q", decode(fen, "b8=Q"));
+		assertEquals("b7b8n", decode(fen, "b8N"));
+		assertEquals("b7a8r", decode(fen, "bxa8=R+"));
+		assertEquals("b7b8q", decode(fen, "b8"));
+		assertRoundTrip(fen);
+	}
+
+	@Test
+	void marksAndIllegalMoves() {
+		String fen = "rnbqkbnr/pppp1ppp/8/4p3/2B1P3/8/PPPP1PPP/RNBQK1NR w KQkq - 0 1";
+		assertEquals("d1h5", decode(fen, "Qh5!?"));
+		assertEquals("c4f7", decode(fen, "Bxf7+"));
+		assertEquals(null, decode(fen, "Qh6"));
+		assertEquals(null, decode(fen, "Zf3"));
+		assertEquals(null, decode(fen, "e"));
+		assertEquals(null, decode(fen, "O-O"));
+		assertEquals("Bxf7+", San.toSan(Fen.parse(fen), Move.of(34, 13, Move.CAPTURE), buffer));
+	}
+}
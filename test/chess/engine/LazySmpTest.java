@@ -0,0 +1,51 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Fen;
+
+class LazySmpTest {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	// True if a thread of the pool is still inside a Search
+	private static boolean searching() {
+		for (Map.Entry<Thread, StackTraceElement[]> e : Thread.getAllStackTraces().entrySet()) {
+			if (!e.getKey().getName().startsWith("lazy-smp-")) {
+				continue;
+			}
+			for (StackTraceElement element : e.getValue()) {
+				if (element.getClassName().equals(Search.class.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Test
+	void interruptedSearchWaitsForEveryThread() {
+		BitboardPosition position = Fen.parse(KIWIPETE);
+		try (LazySmp smp = new LazySmp(4, 16)) {
+			Thread.currentThread().interrupt();
+			assertThrows(IllegalStateException.class, () -> smp.search(position, SearchLimits.time(10_000)));
+			assertTrue(Thread.interrupted());
+			assertFalse(searching());
+
+			// The threads are ready for the next search
+			SearchResult result = smp.search(position, SearchLimits.depth(4));
+			assertEquals(4, result.getDepth());
+			assertNotEquals(0, result.getBestMove());
+			assertEquals(4, smp.getThreadResults().length);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package chess.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BatchReplayTest {
+
+	@Test
+	void aBadGameDoesNotStopTheBatch() throws IOException {
+		StringBuilder pgn = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			pgn.append((i == 7) ? "1. e4 e5 2. Ke3 *\n" : "1. f3 e5 2. g4 Qh4# 0-1\n");
+		}
+		PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.toString().getBytes(StandardCharsets.UTF_8))));
+		try (reader; BatchReplay batch = new BatchReplay(2, 3)) {
+			List<ReplayResult> results = batch.replayAll(reader);
+			assertEquals(20, results.size());
+			for (int i = 0; i < results.size(); i++) {
+				ReplayResult result = results.get(i);
+				assertEquals(i, result.getGameNumber());
+				if (i == 7) {
+					assertTrue(result.hasError());
+					assertEquals("Illegal move Ke3 at ply 3 of game 7", result.getError());
+				} else {
+					assertFalse(result.hasError());
+					assertTrue(result.isCheckMate());
+				}
+			}
+		}
+	}
+}
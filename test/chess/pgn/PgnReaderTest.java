@@ -0,0 +1,95 @@
+package chess.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+
+class PgnReaderTest {
+
+	private static PgnReader reader(String pgn) {
+		return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static List<String> sans(PgnGame game) {
+		List<String> sans = new ArrayList<>();
+		for (int ply = 0; ply < game.getPlyCount(); ply++) {
+			sans.add(game.getSan(ply));
+		}
+		return sans;
+	}
+
+	@Test
+	void commentsVariationsAndAnnotationsAreSkipped() throws IOException {
+		String pgn = "[Event \"Example\"]\n"
+				+ "[White \"A \\\"Quoted\\\" Name\"]\n"
+				+ "[Black \"B\"]\n"
+				+ "[Result \"1-0\"]\n\n"
+				+ "1. e4 e5 2.Bc4 {threatens mate} Nc6 ; a comment to the end of the line\n"
+				+ "3. Qh5 $2 Nf6?? (3... g6 (3... Qe7 {defends}) 4. Qf3) 4. Qxf7# 1-0\n";
+		try (PgnReader reader = reader(pgn)) {
+			PgnGame game = new PgnGame();
+			assertTrue(reader.next(game));
+			assertEquals("A \"Quoted\" Name", game.getTag("White"));
+			assertEquals(List.of("e4", "e5", "Bc4", "Nc6", "Qh5", "Nf6??", "Qxf7#"), sans(game));
+			assertEquals("1-0", game.getResult());
+
+			ChessMatch chessMatch = game.replay();
+			assertTrue(chessMatch.getCheckMate());
+			assertFalse(reader.next(game));
+			assertEquals(1, reader.getGames());
+		}
+	}
+
+	@Test
+	void resultTokens() throws IOException {
+		String pgn = "[Result \"0-1\"]\n1. f3 e5 2. g4 Qh4# 0-1\n"
+				+ "[Result \"1/2-1/2\"]\n1. Nf3 Nf6 1/2-1/2\n"
+				+ "1. d4 *\n"
+				+ "[Result \"1-0\"]\n1. c4 c5\n"
+				+ "[Event \"Last\"]\n1... e5";
+		try (PgnReader reader = reader(pgn)) {
+			PgnGame game = new PgnGame();
+			List<String> results = new ArrayList<>();
+			List<Integer> plies = new ArrayList<>();
+			while (reader.next(game)) {
+				results.add(game.getResult());
+				plies.add(game.getPlyCount());
+			}
+			// Without a result at the end of the moves, the Result tag is used, and then "*"
+			assertEquals(List.of("0-1", "1/2-1/2", "*", "1-0", "*"), results);
+			assertEquals(List.of(4, 2, 1, 2, 1), plies);
+		}
+	}
+
+	@Test
+	void gameFromAFenTag() throws IOException {
+		String pgn = "[FEN \"4k3/8/8/8/8/8/8/R3K3 w Q - 0 1\"]\n1. O-O-O Ke7 2. Kb1 *";
+		try (PgnReader reader = reader(pgn)) {
+			PgnGame game = new PgnGame();
+			assertTrue(reader.next(game));
+			assertEquals("8/4k3/8/8/8/8/8/1K1R4 b - - 0 2", game.replay().toFen());
+		}
+	}
+
+	@Test
+	void illegalMove() throws IOException {
+		try (PgnReader reader = reader("1. e4 e5 2. Ke3 *")) {
+			PgnGame game = new PgnGame();
+			assertTrue(reader.next(game));
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, game::replay);
+			assertEquals("Illegal move Ke3 at ply 3 of game 0", e.getMessage());
+		}
+	}
+}